@@ -2,8 +2,10 @@ package com.example.game_tien_tri;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class GameTienTriApplication {
 
     public static void main(String[] args) {
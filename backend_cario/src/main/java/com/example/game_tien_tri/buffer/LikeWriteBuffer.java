@@ -0,0 +1,251 @@
+package com.example.game_tien_tri.buffer;
+
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+public class LikeWriteBuffer {
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final TaskScheduler taskScheduler;
+    private final PostFeedCache postFeedCache;
+    private final CommentTreeCache commentTreeCache;
+
+    @Value("${like.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${like.write-behind.max-batch:500}")
+    private int maxBatch;
+
+    private final Map<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Key, Pending> inFlight = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> postDeltas = new ConcurrentHashMap<>();
+    private final Map<Integer, Integer> commentDeltas = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean togglePost(Integer userId, Integer postId, Supplier<Boolean> storedState) {
+        return toggle(new Key(userId, postId, true), storedState, postDeltas);
+    }
+
+    public boolean toggleComment(Integer userId, Integer commentId, Supplier<Boolean> storedState) {
+        return toggle(new Key(userId, commentId, false), storedState, commentDeltas);
+    }
+
+    public Boolean pendingPostState(Integer userId, Integer postId) {
+        return currentState(new Key(userId, postId, true));
+    }
+
+    public Boolean pendingCommentState(Integer userId, Integer commentId) {
+        return currentState(new Key(userId, commentId, false));
+    }
+
+    public int pendingPostDelta(Integer postId) {
+        return postDeltas.getOrDefault(postId, 0);
+    }
+
+    public int pendingCommentDelta(Integer commentId) {
+        return commentDeltas.getOrDefault(commentId, 0);
+    }
+
+    // A toggle that lands back on the stored state drops the entry, so like-then-unlike never reaches MySQL.
+    private boolean toggle(Key key, Supplier<Boolean> storedState, Map<Integer, Integer> deltas) {
+        Boolean known = currentState(key);
+        boolean base = known != null ? known : storedState.get();
+        boolean[] liked = new boolean[1];
+        pending.compute(key, (k, entry) -> {
+            if(entry == null){
+                Pending flushing = inFlight.get(k);
+                entry = new Pending(flushing != null ? flushing.isDesired() : base);
+            }
+            boolean desired = !entry.isDesired();
+            liked[0] = desired;
+            addDelta(deltas, k.getTargetId(), desired ? 1 : -1);
+            entry = new Pending(entry.isOriginal(), desired);
+            return entry.isDesired() == entry.isOriginal() ? null : entry;
+        });
+        if(pending.size() >= maxBatch && flushRequested.compareAndSet(false, true)){
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+        return liked[0];
+    }
+
+    private Boolean currentState(Key key) {
+        Pending entry = pending.get(key);
+        if(entry != null){
+            return entry.isDesired();
+        }
+        entry = inFlight.get(key);
+        return entry != null ? entry.isDesired() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${like.write-behind.max-staleness-ms:1000}")
+    public void flush() {
+        flushRequested.set(false);
+        if(!enabled || pending.isEmpty()){
+            return;
+        }
+        flushLock.lock();
+        try{
+            while(!pending.isEmpty()){
+                flushBatch();
+            }
+        }finally{
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void flushBatch() {
+        Map<Key, Pending> batch = new HashMap<>();
+        for(Key key : pending.keySet()){
+            if(batch.size() >= maxBatch){
+                break;
+            }
+            // Moved under the key's lock, so a concurrent toggle sees the entry in exactly one of the two maps.
+            pending.computeIfPresent(key, (k, entry) -> {
+                inFlight.put(k, entry);
+                batch.put(k, entry);
+                return null;
+            });
+        }
+        if(batch.isEmpty()){
+            return;
+        }
+        try{
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaction.executeWithoutResult(status -> write(batch));
+        }catch(RuntimeException e){
+            batch.forEach(this::requeue);
+            throw e;
+        }
+        for(Map.Entry<Key, Pending> entry : batch.entrySet()){
+            Key key = entry.getKey();
+            inFlight.remove(key, entry.getValue());
+            addDelta(key.isPost() ? postDeltas : commentDeltas, key.getTargetId(), entry.getValue().isDesired() ? -1 : 1);
+        }
+        Set<Integer> postIds = new HashSet<>();
+        batch.keySet().stream().filter(Key::isPost).forEach(key -> postIds.add(key.getTargetId()));
+        postIds.forEach(postFeedCache::evictPost);
+        batch.keySet().stream().filter(key -> !key.isPost()).forEach(key -> commentTreeCache.evictComment(key.getTargetId()));
+        if(!postIds.isEmpty()){
+            postFeedCache.evictLikeSortedPages();
+        }
+    }
+
+    private void addDelta(Map<Integer, Integer> deltas, Integer targetId, int delta) {
+        deltas.compute(targetId, (id, current) -> {
+            int value = (current == null ? 0 : current) + delta;
+            return value == 0 ? null : value;
+        });
+    }
+
+    private void write(Map<Key, Pending> batch) {
+        List<Object[]> postInserts = new ArrayList<>();
+        List<Object[]> postDeletes = new ArrayList<>();
+        List<Object[]> commentInserts = new ArrayList<>();
+        List<Object[]> commentDeletes = new ArrayList<>();
+        batch.forEach((key, entry) -> {
+            Object[] args = {key.getUserId(), key.getTargetId()};
+            if(key.isPost()){
+                (entry.isDesired() ? postInserts : postDeletes).add(args);
+            }
+            else{
+                (entry.isDesired() ? commentInserts : commentDeletes).add(args);
+            }
+        });
+        Map<Integer, Integer> postCounts = new HashMap<>();
+        applyCounts(postCounts, postDeletes, -1,
+                jdbcTemplate.batchUpdate("delete from likes where user_id = ? and post_id = ?", postDeletes));
+        applyCounts(postCounts, postInserts, 1,
+                jdbcTemplate.batchUpdate("insert ignore into likes (user_id, post_id, created_at) values (?, ?, now())", postInserts));
+        Map<Integer, Integer> commentCounts = new HashMap<>();
+        applyCounts(commentCounts, commentDeletes, -1,
+                jdbcTemplate.batchUpdate("delete from likes where user_id = ? and comment_id = ?", commentDeletes));
+        applyCounts(commentCounts, commentInserts, 1,
+                jdbcTemplate.batchUpdate("insert ignore into likes (user_id, comment_id, created_at) values (?, ?, now())", commentInserts));
+        jdbcTemplate.batchUpdate("update posts set like_count = like_count + ? where post_id = ?", counterUpdates(postCounts));
+        jdbcTemplate.batchUpdate("update comments set like_count = like_count + ? where comment_id = ?", counterUpdates(commentCounts));
+    }
+
+    private List<Object[]> counterUpdates(Map<Integer, Integer> counts) {
+        List<Object[]> updates = new ArrayList<>();
+        counts.forEach((id, delta) -> {
+            if(delta != 0){
+                updates.add(new Object[]{delta, id});
+            }
+        });
+        return updates;
+    }
+
+    private void applyCounts(Map<Integer, Integer> counts, List<Object[]> rows, int sign, int[] affected) {
+        for(int i = 0; i < rows.size(); i++){
+            int rowCount = affected[i] == Statement.SUCCESS_NO_INFO ? 1 : affected[i];
+            counts.merge((Integer) rows.get(i)[1], sign * rowCount, Integer::sum);
+        }
+    }
+
+    private void requeue(Key key, Pending failed) {
+        pending.compute(key, (k, entry) -> {
+            Pending merged = entry == null ? failed : new Pending(failed.isOriginal(), entry.isDesired());
+            return merged.isDesired() == merged.isOriginal() ? null : merged;
+        });
+        inFlight.remove(key, failed);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Key {
+        private final Integer userId;
+        private final Integer targetId;
+        private final boolean post;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Pending {
+        private final boolean original;
+        private final boolean desired;
+
+        Pending(boolean original) {
+            this(original, original);
+        }
+    }
+}
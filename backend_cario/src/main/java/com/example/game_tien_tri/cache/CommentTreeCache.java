@@ -0,0 +1,99 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.model.dto.CommentRowDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Component
+@RequiredArgsConstructor
+public class CommentTreeCache {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.comment-tree.max-pages:2000}")
+    private long maxPages;
+
+    @Value("${cache.comment-tree.page-ttl-seconds:120}")
+    private long pageTtlSeconds;
+
+    private Cache<String, Page> pages;
+    private Cache<Integer, Integer> commentPosts;
+
+    @PostConstruct
+    public void init() {
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build();
+        commentPosts = Caffeine.newBuilder()
+                .maximumSize(maxPages * 50)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "comment.tree.pages");
+    }
+
+    public static String pageKey(Integer postId, Integer parentId, String cursor, int limit) {
+        String scope = parentId == null ? "post:" + postId : "replies:" + parentId;
+        return String.join("|", scope, String.valueOf(cursor), String.valueOf(limit));
+    }
+
+    public Page getPage(String key) {
+        return pages.getIfPresent(key);
+    }
+
+    public void putPage(String key, Page page) {
+        pages.put(key, page);
+        page.getRows().forEach(row -> commentPosts.put(row.getId(), page.getPostId()));
+        page.getPreviews().forEach(row -> commentPosts.put(row.getId(), page.getPostId()));
+    }
+
+    public void evictPost(Integer postId) {
+        afterCommit(() -> pages.asMap().values().removeIf(page -> Objects.equals(page.getPostId(), postId)));
+    }
+
+    // Only comments that sit in a cached page have a reverse entry, so an unknown id has nothing to evict.
+    public void evictComment(Integer commentId) {
+        Integer postId = commentPosts.getIfPresent(commentId);
+        if(postId != null){
+            evictPost(postId);
+        }
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Page {
+        private final Integer postId;
+        private final List<CommentRowDTO> rows;
+        private final List<CommentRowDTO> previews;
+        private final Map<Integer, Integer> replyCounts;
+        private final String nextCursor;
+    }
+}
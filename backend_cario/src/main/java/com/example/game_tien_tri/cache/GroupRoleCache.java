@@ -0,0 +1,81 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.repository.GroupMemberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class GroupRoleCache {
+    // Cached for non-members too, so repeated checks by outsiders stay off the database.
+    private static final String NO_ROLE = "";
+
+    private final GroupMemberRepository groupMemberRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.group-role.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${cache.group-role.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private Cache<Long, String> roles;
+
+    @PostConstruct
+    public void init() {
+        roles = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, roles, "group.role");
+    }
+
+    public String getRole(Integer groupId, Integer userId) {
+        String role = roles.get(key(groupId, userId), key -> {
+            List<String> found = groupMemberRepository.findRoles(groupId, userId);
+            return found.isEmpty() ? NO_ROLE : found.get(0);
+        });
+        return NO_ROLE.equals(role) ? null : role;
+    }
+
+    public boolean isMember(Integer groupId, Integer userId) {
+        return getRole(groupId, userId) != null;
+    }
+
+    public void evict(Integer groupId, Integer userId) {
+        afterCommit(() -> roles.invalidate(key(groupId, userId)));
+    }
+
+    public void evictGroup(Integer groupId) {
+        afterCommit(() -> roles.asMap().keySet().removeIf(key -> (int) (key >>> 32) == groupId));
+    }
+
+    private static long key(Integer groupId, Integer userId) {
+        return ((long) groupId << 32) | (userId & 0xffffffffL);
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.model.response.PostResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+@RequiredArgsConstructor
+public class PostFeedCache {
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final MeterRegistry meterRegistry;
+    // Bumped by every post eviction, striped by post id; a fragment loaded before a bump may hold the pre-commit row.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Value("${cache.post-feed.max-posts:5000}")
+    private long maxPosts;
+
+    @Value("${cache.post-feed.max-pages:1000}")
+    private long maxPages;
+
+    @Value("${cache.post-feed.page-ttl-seconds:60}")
+    private long pageTtlSeconds;
+
+    private Cache<Integer, PostResponse> posts;
+    private Cache<String, Page> pages;
+
+    @PostConstruct
+    public void init() {
+        posts = Caffeine.newBuilder()
+                .maximumSize(maxPosts)
+                .recordStats()
+                .build();
+        pages = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .expireAfterWrite(Duration.ofSeconds(pageTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, posts, "post.feed.posts");
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "post.feed.pages");
+    }
+
+    public static String scopeOf(String type, Integer groupId) {
+        return "blog".equals(type) && groupId != null ? "group:" + groupId : "forum";
+    }
+
+    public static String pageKey(String scope, String sort, String typeSort, String title, String cursor, Integer limit) {
+        return String.join("|", scope, String.valueOf(sort), String.valueOf(typeSort),
+                String.valueOf(title), String.valueOf(cursor), String.valueOf(limit));
+    }
+
+    public Page getPage(String key) {
+        return pages.getIfPresent(key);
+    }
+
+    public void putPage(String key, Page page) {
+        pages.put(key, page);
+    }
+
+    public Map<Integer, PostResponse> getPosts(Collection<Integer> postIds) {
+        return posts.getAllPresent(postIds);
+    }
+
+    // Read before loading a post from the database and pass it back to putPost.
+    public long generation(Integer postId) {
+        return generations.get(stripe(postId));
+    }
+
+    // Checked after the put: an eviction since the load either bumped first and the put is undone here,
+    // or invalidates after the put.
+    public void putPost(PostResponse post, long generation) {
+        posts.put(post.getId(), post);
+        if(generations.get(stripe(post.getId())) != generation){
+            posts.invalidate(post.getId());
+        }
+    }
+
+    public void evictPost(Integer postId) {
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(postId));
+            posts.invalidate(postId);
+        });
+    }
+
+    public void evictPages(String scope) {
+        afterCommit(() -> pages.asMap().values().removeIf(page -> page.getScope().equals(scope)));
+    }
+
+    public void evictFilteredPages(String scope) {
+        afterCommit(() -> pages.asMap().values().removeIf(page -> page.getScope().equals(scope) && page.isFiltered()));
+    }
+
+    public void evictLikeSortedPages() {
+        afterCommit(() -> pages.asMap().values().removeIf(Page::isSortLike));
+    }
+
+    private static int stripe(Integer postId) {
+        return Math.floorMod(postId, GENERATION_STRIPES);
+    }
+
+    // Evicting before commit would let a concurrent read re-cache the old row.
+    private void afterCommit(Runnable eviction) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Page {
+        private final String scope;
+        private final boolean sortLike;
+        private final boolean filtered;
+        private final List<Integer> ids;
+        private final String nextCursor;
+    }
+}
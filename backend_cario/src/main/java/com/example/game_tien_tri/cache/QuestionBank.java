@@ -0,0 +1,86 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.convert.QuestionConvert;
+import com.example.game_tien_tri.entity.QuestionEntity;
+import com.example.game_tien_tri.model.response.QuestionResponse;
+import com.example.game_tien_tri.repository.QuestionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class QuestionBank {
+    private final QuestionRepository questionRepository;
+    private final QuestionConvert questionConvert;
+    private final MeterRegistry meterRegistry;
+
+    // Replaced wholesale on every rebuild; readers only ever see a complete, immutable map of immutable records.
+    private volatile Map<String, List<QuestionResponse>> snapshot;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("question.bank.questions", this, bank -> {
+            Map<String, List<QuestionResponse>> current = bank.snapshot;
+            return current == null ? 0 : current.values().stream().mapToInt(List::size).sum();
+        }).register(meterRegistry);
+    }
+
+    public List<QuestionResponse> getByType(String type) {
+        Map<String, List<QuestionResponse>> current = snapshot;
+        if(current == null){
+            current = rebuild();
+        }
+        return current.getOrDefault(type, List.of());
+    }
+
+    public void refreshAfterCommit() {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            rebuild();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    // Picks up edits made through other instances.
+    @Scheduled(fixedDelayString = "${question-bank.refresh-ms:300000}", initialDelayString = "${question-bank.refresh-ms:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    private synchronized Map<String, List<QuestionResponse>> rebuild() {
+        Map<String, List<QuestionResponse>> byType = new LinkedHashMap<>();
+        for(QuestionEntity question : questionRepository.findAllWithAnswers()){
+            byType.computeIfAbsent(question.getType(), type -> new ArrayList<>())
+                    .add(questionConvert.toQuestionResponse(question));
+        }
+        Map<String, List<QuestionResponse>> frozen = new LinkedHashMap<>();
+        byType.forEach((type, questions) -> frozen.put(type, List.copyOf(questions)));
+        Map<String, List<QuestionResponse>> built = Collections.unmodifiableMap(frozen);
+        snapshot = built;
+        return built;
+    }
+}
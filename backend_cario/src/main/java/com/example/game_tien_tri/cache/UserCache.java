@@ -0,0 +1,94 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class UserCache {
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.user.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${cache.user.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Only active users are held, as immutable principals without the password hash; an empty Optional marks a banned or missing id so its tokens fail fast.
+    private Cache<Integer, Optional<UserPrincipal>> byId;
+    private Cache<String, Integer> idsByUsername;
+
+    @PostConstruct
+    public void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "user.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByUsername, "user.by-username");
+    }
+
+    public Optional<UserPrincipal> getActiveById(Integer id) {
+        return byId.get(id, key -> userRepository.findByIdAndStatus(key, 1).map(UserPrincipal::of));
+    }
+
+    public Optional<UserPrincipal> getActiveByUsername(String username) {
+        Integer id = idsByUsername.getIfPresent(username);
+        if(id != null){
+            Optional<UserPrincipal> user = getActiveById(id);
+            if(user.isPresent() && user.get().username().equals(username)){
+                return user;
+            }
+        }
+        Optional<UserPrincipal> user = userRepository.findByUsernameAndStatus(username, 1).map(UserPrincipal::of);
+        user.ifPresent(found -> {
+            byId.put(found.id(), user);
+            idsByUsername.put(found.username(), found.id());
+        });
+        return user;
+    }
+
+    public Integer getTokenVersion(Integer id) {
+        return getActiveById(id).map(UserPrincipal::tokenVersion).orElse(null);
+    }
+
+    public void evict(Integer id) {
+        Runnable eviction = () -> {
+            Optional<UserPrincipal> cached = byId.getIfPresent(id);
+            byId.invalidate(id);
+            if(cached != null){
+                cached.ifPresent(user -> idsByUsername.invalidate(user.username()));
+            }
+        };
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
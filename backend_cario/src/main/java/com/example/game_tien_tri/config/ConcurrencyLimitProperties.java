@@ -0,0 +1,29 @@
+package com.example.game_tien_tri.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "concurrency-limit")
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+    private boolean enabled = true;
+    private int initialLimit = 100;
+    private int minLimit = 10;
+    private int maxLimit = 500;
+    private long targetLatencyMs = 250;
+    private double backoffRatio = 0.9;
+    // Share of the current limit each class may occupy; high priority routes can always use all of it.
+    private double normalShare = 0.9;
+    private double lowShare = 0.5;
+    private List<String> highPriority = new ArrayList<>();
+    private List<String> lowPriority = new ArrayList<>();
+    // Routes whose latency is dominated by deliberate work (password hashing) and must not move the limit.
+    private List<String> unsampled = new ArrayList<>(List.of("/login", "/register"));
+}
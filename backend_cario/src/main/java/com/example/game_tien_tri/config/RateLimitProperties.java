@@ -0,0 +1,37 @@
+package com.example.game_tien_tri.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long idleSeconds = 600;
+    private long maxBuckets = 100000;
+    private Limit defaultLimit = new Limit(60, 20);
+    // Ant-style path patterns, matched in declaration order; the first match wins.
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Limit {
+        private long capacity;
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        public Limit(long capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
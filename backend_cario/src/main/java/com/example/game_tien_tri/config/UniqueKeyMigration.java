@@ -0,0 +1,69 @@
+package com.example.game_tien_tri.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// ddl-auto: update cannot add a unique key while duplicate rows exist, and it only logs the failure.
+// This runs before the EntityManagerFactory (and so before the schema update) and keeps the oldest row of each
+// (user_id, post_id) / (user_id, comment_id) like and each (group_id, user_id) membership.
+// like_count and member_count are corrected by CounterReconcileJob on its next pass. They cannot be recounted here:
+// on an older schema member_count does not exist until the schema update that runs after this.
+@Component("uniqueKeyMigration")
+@RequiredArgsConstructor
+public class UniqueKeyMigration {
+    private static final Logger log = LoggerFactory.getLogger(UniqueKeyMigration.class);
+
+    private final DataSource dataSource;
+
+    @PostConstruct
+    public void migrate() throws SQLException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if(tableExists("likes")){
+            int posts = deleteDuplicates(jdbcTemplate, "likes", "like_id", "user_id", "post_id");
+            int comments = deleteDuplicates(jdbcTemplate, "likes", "like_id", "user_id", "comment_id");
+            if(posts + comments > 0){
+                log.warn("Removed {} duplicate post likes and {} duplicate comment likes before adding unique keys", posts, comments);
+            }
+        }
+        if(tableExists("group_members")){
+            int members = deleteDuplicates(jdbcTemplate, "group_members", "group_member_id", "group_id", "user_id");
+            if(members > 0){
+                log.warn("Removed {} duplicate group memberships before adding unique keys", members);
+            }
+        }
+    }
+
+    // The derived table lets MySQL delete from the table it reads.
+    private int deleteDuplicates(JdbcTemplate jdbcTemplate, String table, String idColumn, String firstColumn, String secondColumn) {
+        return jdbcTemplate.update("delete from " + table + " where " + idColumn + " in (select " + idColumn + " from (" +
+                "select l." + idColumn + " from " + table + " l join " + table + " k on k." + firstColumn + " = l." + firstColumn +
+                " and k." + secondColumn + " = l." + secondColumn + " and k." + idColumn + " < l." + idColumn + ") d)");
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try(Connection connection = dataSource.getConnection()){
+            DatabaseMetaData metaData = connection.getMetaData();
+            try(ResultSet tables = metaData.getTables(connection.getCatalog(), null, table, new String[]{"TABLE"})){
+                return tables.next();
+            }
+        }
+    }
+
+    @Component
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnMigration() {
+            super("uniqueKeyMigration");
+        }
+    }
+}
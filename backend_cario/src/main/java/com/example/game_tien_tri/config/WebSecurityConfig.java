@@ -1,6 +1,9 @@
 package com.example.game_tien_tri.config;
 
+import com.example.game_tien_tri.filters.ConcurrencyLimitFilter;
 import com.example.game_tien_tri.filters.JwtTokenFilter;
+import com.example.game_tien_tri.filters.RateLimitFilter;
+import com.example.game_tien_tri.utils.SiteRoles;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -18,6 +21,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class WebSecurityConfig {
     private final JwtTokenFilter jwtTokenFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -26,13 +31,33 @@ public class WebSecurityConfig {
                 .csrf(crsf -> crsf.disable())
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/login", "/register", "/ws/**" , "/api/question/get").permitAll()
-                        .requestMatchers("/api/question/create", "/api/question/update","/api/question/delete/*").hasRole("ADMIN")
-                        .requestMatchers( "/api/**").hasAnyRole("ADMIN", "USER")
+                        // sendError forwards here; without this an anonymous 429 or 400 is rewritten to 403.
+                        .requestMatchers("/error").permitAll()
+                        .requestMatchers("/api/question/create", "/api/question/update","/api/question/delete/*").hasRole(SiteRoles.ADMIN)
+                        .requestMatchers("/actuator/**").hasRole(SiteRoles.ADMIN)
+                        .requestMatchers( "/api/**").hasAnyRole(SiteRoles.ADMIN, SiteRoles.MODERATOR, SiteRoles.USER)
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(concurrencyLimitFilter, JwtTokenFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtTokenFilter.class);
         return http.build();
     }
+
+    // Only run inside the security chain, after the principal is known, not as a plain servlet filter.
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilterRegistration() {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(concurrencyLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,7 +1,8 @@
 package com.example.game_tien_tri.controller;
 
 import com.example.game_tien_tri.model.dto.CommentDTO;
-import com.example.game_tien_tri.model.response.CommentResponse;
+import com.example.game_tien_tri.model.request.CommentRequest;
+import com.example.game_tien_tri.model.response.CommentPageResponse;
 import com.example.game_tien_tri.service.CommentService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -11,7 +12,6 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 @RequiredArgsConstructor
 @RestController
@@ -41,8 +41,14 @@ public class CommentController {
     }
 
     @GetMapping("get/by-posts/{id}")
-    public ResponseEntity<?> getCommentsByPosts(@PathVariable Integer id, HttpServletRequest request) {
-        List<CommentResponse> result = commentService.getCommentByPost(id, request);
+    public ResponseEntity<?> getCommentsByPosts(@PathVariable Integer id, CommentRequest commentRequest, HttpServletRequest request) {
+        CommentPageResponse result = commentService.getCommentByPost(id, commentRequest, request);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("get/replies/{id}")
+    public ResponseEntity<?> getReplies(@PathVariable Integer id, CommentRequest commentRequest, HttpServletRequest request) {
+        CommentPageResponse result = commentService.getReplies(id, commentRequest, request);
         return ResponseEntity.ok(result);
     }
 }
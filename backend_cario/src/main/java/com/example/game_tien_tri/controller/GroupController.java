@@ -1,7 +1,8 @@
 package com.example.game_tien_tri.controller;
 
 import com.example.game_tien_tri.model.dto.GroupDTO;
-import com.example.game_tien_tri.model.response.GroupResponse;
+import com.example.game_tien_tri.model.request.GroupRequest;
+import com.example.game_tien_tri.model.response.GroupPageResponse;
 import com.example.game_tien_tri.service.GroupService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -54,14 +55,22 @@ public class GroupController {
     }
 
     @GetMapping("get/by-user")
-    public ResponseEntity<?> getGroupByUser(HttpServletRequest request) {
-        List<GroupResponse> result = groupService.getByUser(request);
+    public ResponseEntity<?> getGroupByUser(GroupRequest groupRequest, HttpServletRequest request) {
+        GroupPageResponse result = groupService.getByUser(groupRequest, request);
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("get/all")
-    public ResponseEntity<?> getAllGroups(String name, HttpServletRequest request) {
-        List<GroupResponse> result = groupService.getAll(name, request);
+    public ResponseEntity<?> getAllGroups(GroupRequest groupRequest, HttpServletRequest request) {
+        GroupPageResponse result = groupService.getAll(groupRequest, request);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("get/suggest")
+    public ResponseEntity<?> suggestGroups(@RequestParam String name,
+                                           @RequestParam(required = false) Integer limit,
+                                           HttpServletRequest request) {
+        List<GroupDTO> result = groupService.suggest(name, limit, request);
         return ResponseEntity.ok(result);
     }
 }
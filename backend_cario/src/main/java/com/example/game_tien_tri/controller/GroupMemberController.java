@@ -1,6 +1,9 @@
 package com.example.game_tien_tri.controller;
 
-import com.example.game_tien_tri.model.response.GroupMemberResponse;
+import com.example.game_tien_tri.model.request.GroupMemberBulkRequest;
+import com.example.game_tien_tri.model.request.GroupMemberRequest;
+import com.example.game_tien_tri.model.response.GroupMemberBulkResult;
+import com.example.game_tien_tri.model.response.GroupMemberPageResponse;
 import com.example.game_tien_tri.service.GroupMemberService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -53,9 +56,30 @@ public class GroupMemberController {
     }
 
     @GetMapping("get/by-group")
-    public ResponseEntity<?> getByGroup(@RequestParam(required = true) Integer groupId,
+    public ResponseEntity<?> getByGroup(GroupMemberRequest groupMemberRequest,
                                         HttpServletRequest request) {
-        List<GroupMemberResponse> result = groupMemberService.getGroupMembers(groupId, request);
+        if(groupMemberRequest.getGroupId() == null){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        GroupMemberPageResponse result = groupMemberService.getGroupMembers(groupMemberRequest, request);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("bulk/add")
+    public ResponseEntity<?> bulkAdd(@RequestBody GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        List<GroupMemberBulkResult> result = groupMemberService.addMembers(bulkRequest, request);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("bulk/remove")
+    public ResponseEntity<?> bulkRemove(@RequestBody GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        List<GroupMemberBulkResult> result = groupMemberService.removeMembers(bulkRequest, request);
+        return ResponseEntity.ok(result);
+    }
+
+    @PutMapping("bulk/role")
+    public ResponseEntity<?> bulkRole(@RequestBody GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        List<GroupMemberBulkResult> result = groupMemberService.updateRoles(bulkRequest, request);
         return ResponseEntity.ok(result);
     }
 }
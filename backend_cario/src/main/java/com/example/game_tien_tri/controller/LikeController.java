@@ -1,6 +1,7 @@
 package com.example.game_tien_tri.controller;
 
 import com.example.game_tien_tri.model.dto.LikeDTO;
+import com.example.game_tien_tri.model.response.LikeResponse;
 import com.example.game_tien_tri.service.LikeService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -18,7 +19,7 @@ public class LikeController {
 
     @PutMapping("like")
     public ResponseEntity<?> likeOrUnLike(@RequestBody LikeDTO likeDTO, HttpServletRequest request) {
-        likeService.like(likeDTO, request);
-        return ResponseEntity.ok().build();
+        LikeResponse result = likeService.like(likeDTO, request);
+        return ResponseEntity.ok(result);
     }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.example.game_tien_tri.model.request.PostGroupRequest;
 import com.example.game_tien_tri.model.request.PostManagerResquest;
 import com.example.game_tien_tri.model.request.PostRequest;
 import com.example.game_tien_tri.model.response.PostManagerResponse;
+import com.example.game_tien_tri.model.response.PostPageResponse;
 import com.example.game_tien_tri.model.response.PostResponse;
 import com.example.game_tien_tri.service.PostService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -85,13 +86,13 @@ public class PostsController {
     @GetMapping("get")
     public ResponseEntity<?> getAllPosts(PostRequest postRequest,
                                          HttpServletRequest request) {
-        List<PostResponse> result = postService.getPost(postRequest, request);
+        PostPageResponse result = postService.getPost(postRequest, request);
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("get/by-group")
     public ResponseEntity<?> getAllPostsByGroup(PostGroupRequest postGroupRequest, HttpServletRequest request) {
-        List<PostResponse> result = postService.getByGoup(postGroupRequest, request);
+        PostPageResponse result = postService.getByGoup(postGroupRequest, request);
         return ResponseEntity.ok(result);
     }
 
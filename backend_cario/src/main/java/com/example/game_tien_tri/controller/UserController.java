@@ -5,18 +5,21 @@ import com.example.game_tien_tri.model.dto.RegisterDTO;
 import com.example.game_tien_tri.model.response.LoginResponse;
 import com.example.game_tien_tri.service.UserService;
 import com.example.game_tien_tri.utils.JwtTokenUtils;
-import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -47,18 +50,35 @@ public class UserController {
             return ResponseEntity.badRequest().body(errors);
         }
         LoginResponse login = userService.loginUser(loginDTO);
-        int maxAge = jwtTokenUtils.getRemainingExpiration(login.getToken());
-        ResponseCookie cookie = ResponseCookie.from("token", login.getToken())
-                .httpOnly(true)
-                .secure(true)       // ⚠️ local để false, server https để true
-                .sameSite("None")    // bắt buộc khi cross-site (localhost:3000 -> 8080)
-                .path("/")
-                .maxAge(maxAge)
-                .build();
+        ResponseCookie cookie = jwtTokenUtils.tokenCookie(login.getToken());
         Map<String, String> body = new HashMap<>();
         body.put("role", login.getRole());
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, cookie.toString())
                 .body(Map.of("role", login.getRole()));
     }
+
+    @PutMapping("/api/user/update/status")
+    public ResponseEntity<?> updateStatus(@RequestBody Map<String, Integer> body, HttpServletRequest request) {
+        userService.updateStatus(body.get("id"), body.get("status"), request);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/api/user/update/role")
+    public ResponseEntity<?> updateRole(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        Integer id;
+        try{
+            id = Integer.valueOf(body.get("id"));
+        }catch(NumberFormatException e){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        userService.updateRole(id, body.get("role"), request);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/api/user/update/avatar")
+    public ResponseEntity<?> updateAvatar(@RequestBody Map<String, String> body, HttpServletRequest request) {
+        userService.updateAvatar(body.get("urlAvatar"), request);
+        return ResponseEntity.ok().build();
+    }
 }
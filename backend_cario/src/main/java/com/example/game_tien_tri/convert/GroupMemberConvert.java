@@ -21,7 +21,12 @@ public class GroupMemberConvert {
         UserEntity user = userRepository.findById(userId).get();
         groupMemberEntity.setGroup(group);
         groupMemberEntity.setUser(user);
-        groupMemberEntity.setStatus(group.getIsPrivate() == false ? 1 : 0);;
+        groupMemberEntity.setStatus(initialStatus(group));
         return groupMemberEntity;
     }
+
+    // Members of a private group wait for approval (0); anywhere else they are active (1).
+    public static int initialStatus(GroupEntity group) {
+        return Boolean.TRUE.equals(group.getIsPrivate()) ? 0 : 1;
+    }
 }
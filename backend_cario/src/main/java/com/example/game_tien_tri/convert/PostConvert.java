@@ -34,6 +34,20 @@ public class PostConvert {
         return postResponse;
     }
 
+    public PostResponse copyPostResponse(PostResponse source) {
+        PostResponse postResponse = new PostResponse();
+        postResponse.setId(source.getId());
+        postResponse.setTitle(source.getTitle());
+        postResponse.setContent(source.getContent());
+        postResponse.setCreatedAt(source.getCreatedAt());
+        postResponse.setUpdatedAt(source.getUpdatedAt());
+        postResponse.setUserOfPost(source.getUserOfPost());
+        postResponse.setCountLike(source.getCountLike());
+        postResponse.setCountComment(source.getCountComment());
+        postResponse.setUserIsLike(source.isUserIsLike());
+        return postResponse;
+    }
+
     public PostManagerResponse postManagerResponse(PostEntity postEntity) {
         PostManagerResponse postManagerResponse = modelMapper.map(postEntity, PostManagerResponse.class);
         return postManagerResponse;
@@ -1,12 +1,17 @@
 package com.example.game_tien_tri.convert;
 
+import com.example.game_tien_tri.entity.AnswerEntity;
 import com.example.game_tien_tri.entity.QuestionEntity;
 import lombok.RequiredArgsConstructor;
 import com.example.game_tien_tri.model.dto.QuestionDTO;
+import com.example.game_tien_tri.model.response.AnswerResponse;
 import com.example.game_tien_tri.model.response.QuestionResponse;
 import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @RequiredArgsConstructor
 public class QuestionConvert {
@@ -18,7 +23,12 @@ public class QuestionConvert {
     }
 
     public QuestionResponse toQuestionResponse(QuestionEntity questionEntity){
-        QuestionResponse questionResponse = modelMapper.map(questionEntity, QuestionResponse.class);
-        return questionResponse;
+        List<AnswerResponse> answers = new ArrayList<>();
+        if(questionEntity.getAnswers() != null){
+            for(AnswerEntity answer : questionEntity.getAnswers()){
+                answers.add(new AnswerResponse(answer.getId(), answer.getContent()));
+            }
+        }
+        return new QuestionResponse(questionEntity.getId(), questionEntity.getContent(), questionEntity.getType(), answers);
     }
 }
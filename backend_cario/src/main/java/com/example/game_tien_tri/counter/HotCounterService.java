@@ -0,0 +1,191 @@
+package com.example.game_tien_tri.counter;
+
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@RequiredArgsConstructor
+public class HotCounterService {
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PostFeedCache postFeedCache;
+    private final CommentTreeCache commentTreeCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${counter.hot.promote-writes-per-second:20}")
+    private int promoteThreshold;
+
+    @Value("${counter.hot.tracked-keys:10000}")
+    private long trackedKeys;
+
+    private CounterTable posts;
+    private CounterTable comments;
+
+    @PostConstruct
+    public void init() {
+        posts = new CounterTable("update posts set like_count = like_count + ? where post_id = ?");
+        comments = new CounterTable("update comments set like_count = like_count + ? where comment_id = ?");
+        meterRegistry.gaugeMapSize("counter.hot.posts", List.of(), posts.hot);
+        meterRegistry.gaugeMapSize("counter.hot.comments", List.of(), comments.hot);
+    }
+
+    public boolean addPostLikes(Integer postId, int delta) {
+        return posts.add(postId, delta);
+    }
+
+    public boolean addCommentLikes(Integer commentId, int delta) {
+        return comments.add(commentId, delta);
+    }
+
+    public long pendingPostLikes(Integer postId) {
+        return posts.pending(postId);
+    }
+
+    public long pendingCommentLikes(Integer commentId) {
+        return comments.pending(commentId);
+    }
+
+    public Set<Integer> hotPostIds() {
+        return posts.ids();
+    }
+
+    public Set<Integer> hotCommentIds() {
+        return comments.ids();
+    }
+
+    @Scheduled(fixedDelayString = "${counter.hot.fold-delay-ms:1000}")
+    public void fold() {
+        posts.fold().forEach(postFeedCache::evictPost);
+        comments.fold().forEach(commentTreeCache::evictComment);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fold();
+        fold();
+    }
+
+    private static final class HotCounter {
+        private final LongAdder pending = new LongAdder();
+        private volatile boolean touched = true;
+    }
+
+    private final class CounterTable {
+        private final String updateSql;
+        private final Cache<Integer, AtomicInteger> rates;
+        private final Map<Integer, HotCounter> hot = new ConcurrentHashMap<>();
+        private final Map<Integer, HotCounter> retiring = new ConcurrentHashMap<>();
+
+        private CounterTable(String updateSql) {
+            this.updateSql = updateSql;
+            this.rates = Caffeine.newBuilder()
+                    .maximumSize(trackedKeys)
+                    .expireAfterWrite(Duration.ofSeconds(1))
+                    .build();
+        }
+
+        // Returns false while the id is cold so the caller keeps updating the row directly.
+        private boolean add(Integer id, int delta) {
+            HotCounter counter = hot.get(id);
+            if(counter == null){
+                if(rates.get(id, key -> new AtomicInteger()).incrementAndGet() < promoteThreshold){
+                    return false;
+                }
+                counter = hot.computeIfAbsent(id, key -> new HotCounter());
+            }
+            counter.pending.add(delta);
+            counter.touched = true;
+            if(TransactionSynchronizationManager.isSynchronizationActive()){
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if(status != STATUS_COMMITTED){
+                            compensate(id, -delta);
+                        }
+                    }
+                });
+            }
+            return true;
+        }
+
+        // The counter that took the delta may already be folded and retired, so its pending sum is never read again.
+        // The live counter is always folded once more, which lands the correction in the row either way.
+        private void compensate(Integer id, long delta) {
+            HotCounter counter = hot.computeIfAbsent(id, key -> new HotCounter());
+            counter.pending.add(delta);
+            counter.touched = true;
+        }
+
+        private long pending(Integer id) {
+            HotCounter counter = hot.get(id);
+            HotCounter retired = retiring.get(id);
+            return (counter != null ? counter.pending.sum() : 0) + (retired != null ? retired.pending.sum() : 0);
+        }
+
+        private Set<Integer> ids() {
+            Set<Integer> ids = new HashSet<>(hot.keySet());
+            ids.addAll(retiring.keySet());
+            return ids;
+        }
+
+        // Counters idle for a whole cycle retire, and are folded once more next cycle to catch writers that raced the removal.
+        private Set<Integer> fold() {
+            Map<Integer, HotCounter> retired = new HashMap<>(retiring);
+            Map<HotCounter, Long> folded = new HashMap<>();
+            Map<Integer, Long> deltas = new HashMap<>();
+            retired.forEach((id, counter) -> collect(id, counter, folded, deltas));
+            hot.forEach((id, counter) -> {
+                if(!counter.touched && counter.pending.sum() == 0 && hot.remove(id, counter)){
+                    retiring.put(id, counter);
+                    return;
+                }
+                counter.touched = false;
+                collect(id, counter, folded, deltas);
+            });
+            if(!deltas.isEmpty()){
+                List<Object[]> updates = new ArrayList<>();
+                deltas.forEach((id, delta) -> updates.add(new Object[]{delta, id}));
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(updateSql, updates));
+                folded.forEach((counter, delta) -> counter.pending.add(-delta));
+            }
+            retired.forEach(retiring::remove);
+            return deltas.keySet();
+        }
+
+        private void collect(Integer id, HotCounter counter, Map<HotCounter, Long> folded, Map<Integer, Long> deltas) {
+            long delta = counter.pending.sum();
+            if(delta != 0){
+                folded.put(counter, delta);
+                deltas.merge(id, delta, Long::sum);
+            }
+        }
+    }
+}
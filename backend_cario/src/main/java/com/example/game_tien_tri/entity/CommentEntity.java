@@ -14,7 +14,9 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name="comments")
+@Table(name="comments", indexes = {
+        @Index(name = "idx_comments_thread", columnList = "post_id, parent_id, comment_id")
+})
 public class CommentEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,4 +44,7 @@ public class CommentEntity {
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name="parent_id")
     private CommentEntity parent;
+
+    @Column(name="like_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer likeCount = 0;
 }
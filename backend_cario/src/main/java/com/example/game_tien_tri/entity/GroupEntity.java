@@ -11,7 +11,10 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name="user_group")
+@Table(name="user_group", indexes = {
+        @Index(name = "idx_user_group_members", columnList = "member_count, group_id"),
+        @Index(name = "idx_user_group_activity", columnList = "last_activity_at, group_id")
+})
 public class GroupEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -31,6 +34,17 @@ public class GroupEntity {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    @Column(name="member_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer memberCount = 0;
+
+    @Column(name="post_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer postCount = 0;
+
+    @Column(name="last_activity_at", nullable = false, updatable = false,
+            columnDefinition = "datetime(3) default current_timestamp(3)")
+    @CreationTimestamp
+    private LocalDateTime lastActivityAt;
+
     @OneToMany(mappedBy = "group", orphanRemoval = true)
     private List<PostEntity> posts;
 
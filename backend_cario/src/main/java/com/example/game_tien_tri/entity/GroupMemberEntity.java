@@ -10,7 +10,9 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name="group_members")
+@Table(name="group_members", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_group_members_group_user", columnNames = {"group_id", "user_id"})
+})
 public class GroupMemberEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name="likes")
+@Table(name="likes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_likes_user_post", columnNames = {"user_id", "post_id"}),
+        @UniqueConstraint(name = "uk_likes_user_comment", columnNames = {"user_id", "comment_id"})
+})
 public class LikeEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
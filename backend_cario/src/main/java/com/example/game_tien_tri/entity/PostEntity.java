@@ -12,7 +12,12 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name="posts")
+@Table(name="posts", indexes = {
+        @Index(name = "idx_posts_feed", columnList = "type, status, post_id"),
+        @Index(name = "idx_posts_group_feed", columnList = "group_id, type, status, post_id"),
+        @Index(name = "idx_posts_feed_like", columnList = "type, status, like_count, post_id"),
+        @Index(name = "idx_posts_group_feed_like", columnList = "group_id, type, status, like_count, post_id")
+})
 public class PostEntity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +44,12 @@ public class PostEntity {
     @Column(name="status")
     private Integer status;
 
+    @Column(name="like_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer likeCount = 0;
+
+    @Column(name="comment_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private Integer commentCount = 0;
+
     @OneToMany(mappedBy = "post",fetch = FetchType.LAZY, orphanRemoval = true)
     private List<CommentEntity> comments;
 
@@ -45,6 +45,9 @@ public class UserEntity implements UserDetails{
     @Column(name="faculty")
     private String faculty;
 
+    @Column(name="token_version", nullable=false, columnDefinition="int default 0")
+    private Integer tokenVersion = 0;
+
     @Column(name="created_at", updatable=false)
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -0,0 +1,159 @@
+package com.example.game_tien_tri.filters;
+
+import com.example.game_tien_tri.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private enum Priority { HIGH, NORMAL, LOW }
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    // The limit is a double kept as raw bits so the per-request read is a plain volatile load and updates are CAS loops.
+    private final AtomicLong limitBits = new AtomicLong();
+    private final AtomicLong lastDecreaseAt = new AtomicLong();
+    private Timer latency;
+
+    @PostConstruct
+    public void init() {
+        limitBits.set(Double.doubleToLongBits(properties.getInitialLimit()));
+        lastDecreaseAt.set(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getTargetLatencyMs()));
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("concurrency.limit.shed")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        latency = Timer.builder("concurrency.limit.latency").register(meterRegistry);
+        Gauge.builder("concurrency.limit", this, ConcurrencyLimitFilter::currentLimit).register(meterRegistry);
+        Gauge.builder("concurrency.inflight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        Priority priority = priorityOf(request.getServletPath());
+        if (!tryAcquire(priority)) {
+            shed.get(priority).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Server is busy, please try again");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int concurrent = inFlight.getAndDecrement();
+            long elapsed = System.nanoTime() - start;
+            latency.record(elapsed, TimeUnit.NANOSECONDS);
+            if (isSample(request.getServletPath(), response.getStatus())) {
+                onSample(elapsed, concurrent);
+            }
+        }
+    }
+
+    // Deliberately slow routes (password hashing) and requests turned away before doing real work say nothing about backend load.
+    private boolean isSample(String path, int status) {
+        return status != HttpStatus.UNAUTHORIZED.value()
+                && status != HttpStatus.TOO_MANY_REQUESTS.value()
+                && !matches(properties.getUnsampled(), path);
+    }
+
+    private boolean tryAcquire(Priority priority) {
+        double share = switch (priority) {
+            case HIGH -> 1.0;
+            case NORMAL -> properties.getNormalShare();
+            case LOW -> properties.getLowShare();
+        };
+        int allowed = Math.max(1, (int) (currentLimit() * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // AIMD: roughly +1 per limit's worth of fast responses, x backoffRatio at most once per target latency when slow.
+    void onSample(long elapsedNanos, int concurrent) {
+        long target = TimeUnit.MILLISECONDS.toNanos(properties.getTargetLatencyMs());
+        if (elapsedNanos > target) {
+            long now = System.nanoTime();
+            long last = lastDecreaseAt.get();
+            if (now - last >= target && lastDecreaseAt.compareAndSet(last, now)) {
+                update(limit -> Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio()));
+            }
+        } else if (concurrent * 2 >= currentLimit()) {
+            update(limit -> Math.min(properties.getMaxLimit(), limit + 1 / limit));
+        }
+    }
+
+    private void update(DoubleUnaryOperator change) {
+        while (true) {
+            long bits = limitBits.get();
+            long next = Double.doubleToLongBits(change.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == next || limitBits.compareAndSet(bits, next)) {
+                return;
+            }
+        }
+    }
+
+    double currentLimit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    private Priority priorityOf(String path) {
+        if (matches(properties.getHighPriority(), path)) {
+            return Priority.HIGH;
+        }
+        if (matches(properties.getLowPriority(), path)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    private boolean matches(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.game_tien_tri.filters;
 
-import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.cache.UserCache;
+import com.example.game_tien_tri.logging.RequestLogger;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
 import com.example.game_tien_tri.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -10,10 +13,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.util.Pair;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,37 +23,29 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtTokenFilter extends OncePerRequestFilter {
-    private final UserDetailsService userDetailsService;
+    private final UserCache userCache;
     private final JwtTokenUtils jwtTokenUtils;
+    private final RequestLogger requestLogger;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        String failure = null;
         try {
-            String path = request.getServletPath();
-            String method = request.getMethod();
-            System.out.println("Incoming request: " + method + " " + path);
-            System.out.println("Current Authentication: " + SecurityContextHolder.getContext().getAuthentication());
-
             if (isPassToken(request)) {
-                System.out.println("Bypass token for path: " + path);
                 filterChain.doFilter(request, response);
                 return;
             }
 
             // Lấy token từ cookie
             Cookie[] cookies = request.getCookies();
-            if (cookies == null) {
-                System.out.println("No cookies found!");
-            } else {
-                Arrays.stream(cookies).forEach(c -> System.out.println("Cookie: " + c.getName() + "=" + c.getValue()));
-            }
-
             String token = null;
             if (cookies != null) {
                 for (Cookie cookie : cookies) {
@@ -63,41 +57,53 @@ public class JwtTokenFilter extends OncePerRequestFilter {
             }
 
             if (token == null) {
-                System.out.println("Token is missing!");
+                failure = "Token is missing";
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token is missing");
                 return;
             }
 
-            System.out.println("Extracted token: " + token);
-
-            final String username = jwtTokenUtils.extractUsername(token);
-            System.out.println("Username from token: " + username);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserEntity userEntity = (UserEntity) userDetailsService.loadUserByUsername(username);
-                System.out.println("Loaded user: " + userEntity.getUsername() + ", roles: " + userEntity.getRole());
+            final Claims claims = jwtTokenUtils.verify(token);
 
-                if (jwtTokenUtils.validateToken(token, userEntity)) {
-                    System.out.println("Token valid for user: " + userEntity.getUsername());
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userEntity, null, userEntity.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                } else {
-                    System.out.println("Invalid token!");
-                    response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid token");
-                    return;
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserPrincipal principal = jwtTokenUtils.toPrincipal(claims);
+                if (principal != null) {
+                    Integer currentVersion = userCache.getTokenVersion(principal.id());
+                    if (currentVersion == null) {
+                        failure = "Inactive user " + principal.id();
+                        response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid token");
+                        return;
+                    }
+                    if (!currentVersion.equals(principal.tokenVersion())) {
+                        principal = null;
+                    }
                 }
+                if (principal == null) {
+                    // Token predates the latest role/status change: reload the user and hand out a fresh token.
+                    Optional<UserPrincipal> reloaded = claims.get(JwtTokenUtils.USER_ID) == null
+                            ? userCache.getActiveByUsername(claims.getSubject())
+                            : userCache.getActiveById(claims.get(JwtTokenUtils.USER_ID, Integer.class));
+                    if (reloaded.isEmpty()) {
+                        failure = "Inactive user " + claims.getSubject();
+                        response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid token");
+                        return;
+                    }
+                    principal = reloaded.get();
+                    String freshToken = jwtTokenUtils.generateToken(principal);
+                    response.addHeader(HttpHeaders.SET_COOKIE, jwtTokenUtils.tokenCookie(freshToken).toString());
+                }
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.authorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
 
-            Authentication authAfter = SecurityContextHolder.getContext().getAuthentication();
-            System.out.println("Authentication after filter: " + authAfter);
-
             filterChain.doFilter(request, response);
         } catch (Exception e) {
-            System.out.println("Exception in JwtTokenFilter:");
-            e.printStackTrace();
-            response.sendError(HttpServletResponse.SC_FORBIDDEN, e.getMessage());
+            failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+            // The exception text can echo token contents or internals; it goes to the request log (redacted), not the client.
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Invalid token");
+        } finally {
+            requestLogger.record(request, response.getStatus(), System.nanoTime() - start, failure);
         }
     }
 
@@ -0,0 +1,127 @@
+package com.example.game_tien_tri.filters;
+
+import com.example.game_tien_tri.config.RateLimitProperties;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private Cache<String, TokenBucket> buckets;
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate.limit.buckets");
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!properties.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String path = request.getServletPath();
+        String route = DEFAULT_ROUTE;
+        RateLimitProperties.Limit limit = properties.getDefaultLimit();
+        for (Map.Entry<String, RateLimitProperties.Limit> entry : properties.getRoutes().entrySet()) {
+            if (pathMatcher.match(entry.getKey(), path)) {
+                route = entry.getKey();
+                limit = entry.getValue();
+                break;
+            }
+        }
+        RateLimitProperties.Limit routeLimit = limit;
+        TokenBucket bucket = buckets.get(route + "|" + clientKey(request), key -> new TokenBucket(routeLimit));
+        long waitMillis = bucket.tryAcquire();
+        if (waitMillis > 0) {
+            rejections.computeIfAbsent(route, tag -> Counter.builder("rate.limit.rejected")
+                    .tag("route", tag)
+                    .register(meterRegistry)).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Authenticated calls are limited per user; /login and /register run before authentication, so they fall back to the IP.
+    // Behind a trusted proxy getRemoteAddr() is already the forwarded client address (server.forward-headers-strategy: native).
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal user) {
+            return "u" + user.id();
+        }
+        return "ip" + request.getRemoteAddr();
+    }
+
+    private static final class TokenBucket {
+        private final long capacity;
+        private final double refillPerNano;
+        private final AtomicReference<State> state;
+
+        private TokenBucket(RateLimitProperties.Limit limit) {
+            this.capacity = limit.getCapacity();
+            this.refillPerNano = limit.getRefillPerSecond() / 1_000_000_000d;
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        // Returns 0 when a token was taken, otherwise the approximate wait in milliseconds until the next one.
+        private long tryAcquire() {
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = Math.min(capacity, current.tokens + (now - current.updatedAt) * refillPerNano);
+                if (tokens < 1) {
+                    if (refillPerNano <= 0) {
+                        return Long.MAX_VALUE / 1_000_000;
+                    }
+                    return Math.max(1, (long) ((1 - tokens) / refillPerNano / 1_000_000));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now))) {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.game_tien_tri.logging;
+
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+public class RequestLogger {
+    private static final Logger log = LoggerFactory.getLogger("request");
+    private static final Pattern JWT = Pattern.compile("eyJ[\\w-]*\\.[\\w-]*\\.[\\w-]*");
+    private static final Pattern SECRET_PAIR = Pattern.compile("(?i)(token|password|cookie)=[^\\s;,&]+");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${request-log.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${request-log.buffer-size:4096}")
+    private int bufferSize;
+
+    // Bounded ring between request threads and the writer; when full, entries are dropped rather than blocking a request.
+    private ArrayBlockingQueue<Entry> buffer;
+    private Counter dropped;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        dropped = Counter.builder("request.log.dropped").register(meterRegistry);
+        Gauge.builder("request.log.buffered", buffer, ArrayBlockingQueue::size).register(meterRegistry);
+        writer = new Thread(this::drain, "request-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(HttpServletRequest request, int status, long elapsedNanos, String failure) {
+        if(failure == null && status < 400 && ThreadLocalRandom.current().nextDouble() >= sampleRate){
+            return;
+        }
+        Entry entry = new Entry(System.currentTimeMillis(), request.getMethod(), request.getServletPath(), status,
+                currentUserId(), TimeUnit.NANOSECONDS.toMicros(elapsedNanos), failure == null ? null : redact(failure));
+        if(!buffer.offer(entry)){
+            dropped.increment();
+        }
+    }
+
+    static String redact(String text) {
+        String masked = JWT.matcher(text).replaceAll("[redacted]");
+        return SECRET_PAIR.matcher(masked).replaceAll("$1=[redacted]");
+    }
+
+    private Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication != null && authentication.getPrincipal() instanceof UserPrincipal user){
+            return user.id();
+        }
+        return null;
+    }
+
+    private void drain() {
+        List<Entry> batch = new ArrayList<>();
+        while(running || !buffer.isEmpty()){
+            try{
+                Entry first = buffer.poll(1, TimeUnit.SECONDS);
+                if(first == null){
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, 255);
+                for(Entry entry : batch){
+                    write(entry);
+                }
+                batch.clear();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void write(Entry entry) {
+        if(entry.failure() != null || entry.status() >= 500){
+            log.warn("ts={} method={} path={} status={} user={} durationUs={} error=\"{}\"", entry.timestamp(),
+                    entry.method(), entry.path(), entry.status(), entry.userId(), entry.durationMicros(), entry.failure());
+        }
+        else{
+            log.info("ts={} method={} path={} status={} user={} durationUs={}", entry.timestamp(),
+                    entry.method(), entry.path(), entry.status(), entry.userId(), entry.durationMicros());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private record Entry(long timestamp, String method, String path, int status, Integer userId,
+                         long durationMicros, String failure) {
+    }
+}
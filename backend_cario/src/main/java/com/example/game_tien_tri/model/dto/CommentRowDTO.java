@@ -0,0 +1,22 @@
+package com.example.game_tien_tri.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentRowDTO {
+    private Integer id;
+    private String content;
+    private LocalDateTime createdAt;
+    private Integer parentId;
+    private String username;
+    private String urlAvatar;
+    private Integer likeCount;
+}
@@ -0,0 +1,22 @@
+package com.example.game_tien_tri.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupMemberRowDTO {
+    private Integer id;
+    private Integer userId;
+    private String username;
+    private String urlAvatar;
+    private String role;
+    private Integer status;
+    private LocalDateTime joinedAt;
+}
@@ -0,0 +1,15 @@
+package com.example.game_tien_tri.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostCursorDTO {
+    private Integer id;
+    private Integer countLike;
+}
@@ -0,0 +1,18 @@
+package com.example.game_tien_tri.model.dto;
+
+import com.example.game_tien_tri.entity.UserEntity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+public record UserPrincipal(Integer id, String username, String role, Integer tokenVersion) {
+    public static UserPrincipal of(UserEntity user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.getRole(),
+                user.getTokenVersion() == null ? 0 : user.getTokenVersion());
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.game_tien_tri.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentRequest {
+    private String cursor;
+    private Integer limit;
+}
@@ -0,0 +1,18 @@
+package com.example.game_tien_tri.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupMemberBulkRequest {
+    private Integer groupId;
+    private List<Integer> userIds;
+    private String role;
+}
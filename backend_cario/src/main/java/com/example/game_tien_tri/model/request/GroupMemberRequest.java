@@ -0,0 +1,18 @@
+package com.example.game_tien_tri.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class GroupMemberRequest {
+    private Integer groupId;
+    private String role;
+    private Integer status;
+    private String cursor;
+    private Integer limit;
+}
@@ -11,5 +11,7 @@ public class PostGroupRequest {
     private Integer groupId;
     private String sort;
     private String typeSort;
+    private String cursor;
+    private Integer limit;
 }
 
@@ -13,4 +13,6 @@ public class PostRequest {
     private String title;
     private String sort;
     private String typeSort;
+    private String cursor;
+    private Integer limit;
 }
@@ -1,15 +1,4 @@
 package com.example.game_tien_tri.model.response;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-public class AnswerResponse {
-    private Integer id;
-    private String content;
+public record AnswerResponse(Integer id, String content) {
 }
@@ -0,0 +1,17 @@
+package com.example.game_tien_tri.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommentPageResponse {
+    private List<CommentResponse> comments;
+    private String nextCursor;
+}
@@ -20,5 +20,6 @@ public class CommentResponse {
     private UserOfComment user;
     private boolean isLike;
     private Integer countLike;
+    private Integer replyCount;
     private List<CommentResponse> commentsChildren;
 }
\ No newline at end of file
@@ -14,4 +14,6 @@ public class GroupResponse {
     private LocalDateTime createdAt;
     private String userRole;
     private Integer countUserJoin;
+    private Integer countPost;
+    private LocalDateTime lastActivityAt;
 }
@@ -0,0 +1,15 @@
+package com.example.game_tien_tri.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LikeResponse {
+    private boolean userIsLike;
+    private Integer countLike;
+}
@@ -1,19 +1,10 @@
 package com.example.game_tien_tri.model.response;
 
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
 import java.util.List;
 
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-public class QuestionResponse {
-    private Integer id;
-    private String content;
-    private String type;
-    private List<AnswerResponse> answers;
+// Immutable: QuestionBank hands the same instances to every request.
+public record QuestionResponse(Integer id, String content, String type, List<AnswerResponse> answers) {
+    public QuestionResponse {
+        answers = answers == null ? List.of() : List.copyOf(answers);
+    }
 }
@@ -1,17 +1,46 @@
 package com.example.game_tien_tri.repository;
 
 import com.example.game_tien_tri.entity.CommentEntity;
+import com.example.game_tien_tri.repository.custom.CommentRepositoryCustom;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CommentRepository extends JpaRepository<CommentEntity, Integer> {
+public interface CommentRepository extends JpaRepository<CommentEntity, Integer>, CommentRepositoryCustom {
     @Query("SELECT cm FROM CommentEntity cm WHERE cm.post.id = :postId AND cm.parent is null")
     List<CommentEntity> findByPostId(@Param("postId") Integer postId);
     Integer countByPostId(Integer postId);
+
+    @Query("SELECT c.post.id FROM CommentEntity c WHERE c.id = :commentId")
+    Integer findPostIdById(@Param("commentId") Integer commentId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update comments set like_count = like_count + :delta where comment_id = :commentId", nativeQuery = true)
+    int updateLikeCount(@Param("commentId") Integer commentId, @Param("delta") int delta);
+
+    @Query(value = "select like_count from comments where comment_id = :commentId", nativeQuery = true)
+    Integer findLikeCount(@Param("commentId") Integer commentId);
+
+    @Query(value = "select max(t.comment_id) from ( select comment_id from comments where comment_id > :afterId " +
+            "order by comment_id limit :size ) t", nativeQuery = true)
+    Integer findBatchUpperId(@Param("afterId") Integer afterId, @Param("size") int size);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update comments c " +
+            "left join ( select l.comment_id, count(l.like_id) as total from likes l " +
+            "    where l.comment_id > :fromId and l.comment_id <= :toId group by l.comment_id ) lk on lk.comment_id = c.comment_id " +
+            "set c.like_count = coalesce(lk.total, 0) " +
+            "where c.comment_id > :fromId and c.comment_id <= :toId and c.comment_id not in (:excludedIds) " +
+            "and c.like_count <> coalesce(lk.total, 0)", nativeQuery = true)
+    int reconcileLikeCounts(@Param("fromId") Integer fromId, @Param("toId") Integer toId,
+                            @Param("excludedIds") Collection<Integer> excludedIds);
 }
@@ -1,8 +1,15 @@
 package com.example.game_tien_tri.repository;
 
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.example.game_tien_tri.entity.GroupMemberEntity;
+import com.example.game_tien_tri.model.dto.GroupMemberRowDTO;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +20,40 @@ public interface GroupMemberRepository extends JpaRepository<GroupMemberEntity,
     Integer countByGroupId(Integer groupId);
     List<GroupMemberEntity> findByGroupId(Integer groupId);
     boolean existsByGroupIdAndUserId(Integer groupId, Integer userId);
+
+    @Query("SELECT new com.example.game_tien_tri.model.dto.GroupMemberRowDTO(gm.id, u.id, u.username, u.urlAvatar, " +
+            "gm.role, gm.status, gm.joinedAt) " +
+            "FROM GroupMemberEntity gm JOIN gm.user u " +
+            "WHERE gm.group.id = :groupId AND gm.id > :afterId " +
+            "AND (:role IS NULL OR gm.role = :role) " +
+            "AND (:status IS NULL OR gm.status = :status) " +
+            "ORDER BY gm.id")
+    List<GroupMemberRowDTO> findMemberPage(@Param("groupId") Integer groupId,
+                                           @Param("afterId") Integer afterId,
+                                           @Param("role") String role,
+                                           @Param("status") Integer status,
+                                           Pageable pageable);
+
+    @Query("SELECT gm.user.id, gm.role FROM GroupMemberEntity gm WHERE gm.group.id = :groupId AND gm.user.id IN :userIds")
+    List<Object[]> findRolesByUserIds(@Param("groupId") Integer groupId, @Param("userIds") Collection<Integer> userIds);
+
+    @Query("SELECT gm.role FROM GroupMemberEntity gm WHERE gm.group.id = :groupId AND gm.user.id = :userId")
+    List<String> findRoles(@Param("groupId") Integer groupId, @Param("userId") Integer userId);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE GroupMemberEntity gm SET gm.role = :role WHERE gm.group.id = :groupId AND gm.user.id = :userId")
+    int updateRole(@Param("groupId") Integer groupId, @Param("userId") Integer userId, @Param("role") String role);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into group_members (group_id, user_id, role, status, joined_at) " +
+            "values (:groupId, :userId, :role, :status, now())", nativeQuery = true)
+    int insertMember(@Param("groupId") Integer groupId, @Param("userId") Integer userId,
+                     @Param("role") String role, @Param("status") Integer status);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GroupMemberEntity gm WHERE gm.group.id = :groupId AND gm.user.id = :userId")
+    int deleteMember(@Param("groupId") Integer groupId, @Param("userId") Integer userId);
 }
\ No newline at end of file
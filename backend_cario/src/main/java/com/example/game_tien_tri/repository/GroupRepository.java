@@ -1,16 +1,62 @@
 package com.example.game_tien_tri.repository;
 
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.example.game_tien_tri.entity.GroupEntity;
+import com.example.game_tien_tri.model.dto.GroupDTO;
+import com.example.game_tien_tri.repository.custom.GroupRepositoryCustom;
 import java.util.List;
 
 @Repository
-public interface GroupRepository extends JpaRepository<GroupEntity, Integer> {
+public interface GroupRepository extends JpaRepository<GroupEntity, Integer>, GroupRepositoryCustom {
 
     @Query("SELECT g FROM GroupEntity g " +
             "WHERE :name IS NULL OR g.name LIKE CONCAT('%', :name, '%')")
     List<GroupEntity> findByNameContaining(@Param("name") String name);
+
+    @Query("SELECT new com.example.game_tien_tri.model.dto.GroupDTO(g.id, g.name, g.description, g.isPrivate) " +
+            "FROM GroupEntity g WHERE g.id > :afterId ORDER BY g.id")
+    List<GroupDTO> findIndexBatch(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update user_group set member_count = member_count + :delta, " +
+            "last_activity_at = case when :delta > 0 then now(3) else last_activity_at end " +
+            "where group_id = :groupId", nativeQuery = true)
+    int updateMemberCount(@Param("groupId") Integer groupId, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update user_group set member_count = (select count(*) from group_members where group_id = :groupId), " +
+            "last_activity_at = case when :joined then now(3) else last_activity_at end " +
+            "where group_id = :groupId", nativeQuery = true)
+    int recountMembers(@Param("groupId") Integer groupId, @Param("joined") boolean joined);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update user_group set post_count = post_count + :delta, " +
+            "last_activity_at = case when :delta > 0 then now(3) else last_activity_at end " +
+            "where group_id = :groupId", nativeQuery = true)
+    int updatePostCount(@Param("groupId") Integer groupId, @Param("delta") int delta);
+
+    @Query(value = "select max(t.group_id) from ( select group_id from user_group where group_id > :afterId " +
+            "order by group_id limit :size ) t", nativeQuery = true)
+    Integer findBatchUpperId(@Param("afterId") Integer afterId, @Param("size") int size);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update user_group g " +
+            "left join ( select m.group_id, count(m.group_member_id) as total from group_members m " +
+            "    where m.group_id > :fromId and m.group_id <= :toId group by m.group_id ) gm on gm.group_id = g.group_id " +
+            "left join ( select p.group_id, count(p.post_id) as total from posts p " +
+            "    where p.group_id > :fromId and p.group_id <= :toId group by p.group_id ) gp on gp.group_id = g.group_id " +
+            "set g.member_count = coalesce(gm.total, 0), g.post_count = coalesce(gp.total, 0) " +
+            "where g.group_id > :fromId and g.group_id <= :toId " +
+            "and (g.member_count <> coalesce(gm.total, 0) or g.post_count <> coalesce(gp.total, 0))", nativeQuery = true)
+    int reconcileCounters(@Param("fromId") Integer fromId, @Param("toId") Integer toId);
 }
@@ -2,14 +2,39 @@ package com.example.game_tien_tri.repository;
 
 import com.example.game_tien_tri.entity.LikeEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface LikeRepository extends JpaRepository<LikeEntity, Integer> {
-    LikeEntity findByUserIdAndPostId(Integer userId, Integer postId);
-    LikeEntity findByUserIdAndCommentId(Integer userId, Integer likeId);
     boolean existsByUserIdAndPostId(Integer userId, Integer postId);
     boolean existsByUserIdAndCommentId(Integer userId, Integer likeId);
     Integer countByPostId(Integer postId);
-    Integer countByUserIdAndCommentId(Integer userId, Integer likeId);
+
+    @Query("SELECT l.post.id FROM LikeEntity l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Integer> findLikedPostIds(@Param("userId") Integer userId, @Param("postIds") Collection<Integer> postIds);
+
+    @Query("SELECT l.comment.id FROM LikeEntity l WHERE l.user.id = :userId AND l.comment.id IN :commentIds")
+    List<Integer> findLikedCommentIds(@Param("userId") Integer userId, @Param("commentIds") Collection<Integer> commentIds);
+
+    @Modifying
+    @Query(value = "delete from likes where user_id = :userId and post_id = :postId", nativeQuery = true)
+    int deletePostLike(@Param("userId") Integer userId, @Param("postId") Integer postId);
+
+    @Modifying
+    @Query(value = "insert ignore into likes (user_id, post_id, created_at) values (:userId, :postId, now())", nativeQuery = true)
+    int insertPostLike(@Param("userId") Integer userId, @Param("postId") Integer postId);
+
+    @Modifying
+    @Query(value = "delete from likes where user_id = :userId and comment_id = :commentId", nativeQuery = true)
+    int deleteCommentLike(@Param("userId") Integer userId, @Param("commentId") Integer commentId);
+
+    @Modifying
+    @Query(value = "insert ignore into likes (user_id, comment_id, created_at) values (:userId, :commentId, now())", nativeQuery = true)
+    int insertCommentLike(@Param("userId") Integer userId, @Param("commentId") Integer commentId);
 }
@@ -1,19 +1,24 @@
 package com.example.game_tien_tri.repository;
 
 import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.model.dto.PostDTO;
 import com.example.game_tien_tri.repository.custom.PostRepositoryCustom;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface PostRepository extends JpaRepository<PostEntity, Integer>, PostRepositoryCustom {
     boolean existsById(Integer id);
-    @Query("SELECT p FROM PostEntity p WHERE p.user.id = :userId ORDER BY p.id desc")
-    List<PostEntity> findByUserId(@Param("userId")Integer userId);
+    @Query("SELECT p.id FROM PostEntity p WHERE p.user.id = :userId ORDER BY p.id desc")
+    List<Integer> findIdsByUserId(@Param("userId")Integer userId);
 
     @Query("SELECT p FROM PostEntity p " +
             "WHERE 1=1 " +
@@ -22,4 +27,38 @@ public interface PostRepository extends JpaRepository<PostEntity, Integer>, Post
     List<PostEntity> findByGroupIdAndStatus(@Param("groupId") Integer groupId,
                                             @Param("status") Integer status);
 
+    @Query("SELECT new com.example.game_tien_tri.model.dto.PostDTO(p.id, p.title, p.content, p.type, p.status, g.id) " +
+            "FROM PostEntity p LEFT JOIN p.group g WHERE p.id > :afterId ORDER BY p.id")
+    List<PostDTO> findIndexBatch(@Param("afterId") Integer afterId, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update posts set like_count = like_count + :delta where post_id = :postId", nativeQuery = true)
+    int updateLikeCount(@Param("postId") Integer postId, @Param("delta") int delta);
+
+    @Query(value = "select like_count from posts where post_id = :postId", nativeQuery = true)
+    Integer findLikeCount(@Param("postId") Integer postId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update posts set comment_count = comment_count + :delta where post_id = :postId", nativeQuery = true)
+    int updateCommentCount(@Param("postId") Integer postId, @Param("delta") int delta);
+
+    @Query(value = "select max(t.post_id) from ( select post_id from posts where post_id > :afterId " +
+            "order by post_id limit :size ) t", nativeQuery = true)
+    Integer findBatchUpperId(@Param("afterId") Integer afterId, @Param("size") int size);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update posts p " +
+            "left join ( select l.post_id, count(l.like_id) as total from likes l " +
+            "    where l.post_id > :fromId and l.post_id <= :toId group by l.post_id ) lk on lk.post_id = p.post_id " +
+            "left join ( select c.post_id, count(c.comment_id) as total from comments c " +
+            "    where c.post_id > :fromId and c.post_id <= :toId group by c.post_id ) cm on cm.post_id = p.post_id " +
+            "set p.like_count = coalesce(lk.total, 0), p.comment_count = coalesce(cm.total, 0) " +
+            "where p.post_id > :fromId and p.post_id <= :toId and p.post_id not in (:excludedIds) " +
+            "and (p.like_count <> coalesce(lk.total, 0) or p.comment_count <> coalesce(cm.total, 0))", nativeQuery = true)
+    int reconcileCounters(@Param("fromId") Integer fromId, @Param("toId") Integer toId,
+                          @Param("excludedIds") Collection<Integer> excludedIds);
+
 }
@@ -2,11 +2,13 @@ package com.example.game_tien_tri.repository;
 
 import com.example.game_tien_tri.entity.QuestionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<QuestionEntity, Integer> {
-    List<QuestionEntity> findByType(String type);
+    @Query("SELECT q FROM QuestionEntity q LEFT JOIN FETCH q.answers a ORDER BY q.id, a.id")
+    List<QuestionEntity> findAllWithAnswers();
 }
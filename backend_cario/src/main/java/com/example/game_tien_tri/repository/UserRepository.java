@@ -1,11 +1,14 @@
 package com.example.game_tien_tri.repository;
 
 import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.utils.SiteRoles;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +18,19 @@ public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByUsername(String username);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-    @Query("SELECT u FROM UserEntity u WHERE u.role = 'admin' or u.role = 'moderator'")
+    @Query("SELECT u.id FROM UserEntity u WHERE u.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+    Optional<UserEntity> findByIdAndStatus(Integer id, Integer status);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.status = :status, u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int updateStatus(@Param("id") Integer id, @Param("status") Integer status);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.role = :role, u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int updateRole(@Param("id") Integer id, @Param("role") String role);
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.urlAvatar = :urlAvatar WHERE u.id = :id")
+    int updateAvatar(@Param("id") Integer id, @Param("urlAvatar") String urlAvatar);
+    @Query("SELECT u FROM UserEntity u WHERE u.role = '" + SiteRoles.ADMIN + "' or u.role = '" + SiteRoles.MODERATOR + "'")
     List<UserEntity> findByAdmins();
 
     @Query("SELECT u FROM UserEntity u " +
@@ -0,0 +1,12 @@
+package com.example.game_tien_tri.repository.custom;
+
+import com.example.game_tien_tri.model.dto.CommentRowDTO;
+
+import java.util.List;
+import java.util.Map;
+
+public interface CommentRepositoryCustom {
+    List<CommentRowDTO> getThreadPage(Integer postId, Integer parentId, Integer afterId, int limit);
+    List<CommentRowDTO> getFirstReplies(List<Integer> parentIds, int perParent);
+    Map<Integer, Integer> countReplies(List<Integer> parentIds);
+}
@@ -0,0 +1,9 @@
+package com.example.game_tien_tri.repository.custom;
+
+import com.example.game_tien_tri.model.response.GroupResponse;
+
+import java.util.List;
+
+public interface GroupRepositoryCustom {
+    List<GroupResponse> getGroups(String name, List<Integer> nameMatchIds, String sort, Integer userId, boolean joinedOnly, String cursor, int limit);
+}
@@ -0,0 +1,102 @@
+package com.example.game_tien_tri.repository.custom.Impl;
+
+import com.example.game_tien_tri.model.dto.CommentRowDTO;
+import com.example.game_tien_tri.repository.custom.CommentRepositoryCustom;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Transactional
+public class CommentRepositoryImpl implements CommentRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<CommentRowDTO> getThreadPage(Integer postId, Integer parentId, Integer afterId, int limit) {
+        StringBuilder jpql = new StringBuilder();
+        jpql.append("SELECT new com.example.game_tien_tri.model.dto.CommentRowDTO(c.id, c.content, c.created_at, c.parent.id, ");
+        jpql.append("u.username, u.urlAvatar, c.likeCount) ");
+        jpql.append("FROM CommentEntity c JOIN c.user u WHERE c.id > :afterId ");
+        if(parentId == null){
+            jpql.append("AND c.post.id = :postId AND c.parent IS NULL ");
+        }
+        else{
+            jpql.append("AND c.parent.id = :parentId ");
+        }
+        jpql.append("ORDER BY c.id");
+        TypedQuery<CommentRowDTO> query = entityManager.createQuery(jpql.toString(), CommentRowDTO.class);
+        query.setParameter("afterId", afterId);
+        if(parentId == null){
+            query.setParameter("postId", postId);
+        }
+        else{
+            query.setParameter("parentId", parentId);
+        }
+        query.setMaxResults(limit + 1);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<CommentRowDTO> getFirstReplies(List<Integer> parentIds, int perParent) {
+        if(parentIds.isEmpty() || perParent <= 0){
+            return new ArrayList<>();
+        }
+        StringBuilder sql = new StringBuilder();
+        sql.append("select t.comment_id, t.content, t.created_at, t.parent_id, t.username, t.url_avatar, t.like_count \n");
+        sql.append("from ( select c.comment_id, c.content, c.created_at, c.parent_id, u.username, u.url_avatar, c.like_count, \n");
+        sql.append("    row_number() over (partition by c.parent_id order by c.comment_id) as rn \n");
+        sql.append("    from comments c join users u on u.user_id = c.user_id \n");
+        sql.append("    where c.parent_id in (:parentIds) ) t \n");
+        sql.append("where t.rn <= :perParent \n");
+        sql.append("order by t.parent_id, t.comment_id");
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setParameter("parentIds", parentIds);
+        query.setParameter("perParent", perParent);
+        List<Object[]> rows = query.getResultList();
+        List<CommentRowDTO> result = new ArrayList<>();
+        for(Object[] row : rows){
+            result.add(new CommentRowDTO(((Number) row[0]).intValue(),
+                    (String) row[1],
+                    toLocalDateTime(row[2]),
+                    ((Number) row[3]).intValue(),
+                    (String) row[4],
+                    (String) row[5],
+                    ((Number) row[6]).intValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Integer, Integer> countReplies(List<Integer> parentIds) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if(parentIds.isEmpty()){
+            return counts;
+        }
+        List<Object[]> rows = entityManager.createQuery("SELECT c.parent.id, count(c) FROM CommentEntity c " +
+                        "WHERE c.parent.id IN :parentIds GROUP BY c.parent.id", Object[].class)
+                .setParameter("parentIds", parentIds)
+                .getResultList();
+        for(Object[] row : rows){
+            counts.put((Integer) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value){
+        if(value instanceof Timestamp timestamp){
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
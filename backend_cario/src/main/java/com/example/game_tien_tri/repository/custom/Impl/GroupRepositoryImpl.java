@@ -0,0 +1,110 @@
+package com.example.game_tien_tri.repository.custom.Impl;
+
+import com.example.game_tien_tri.model.response.GroupResponse;
+import com.example.game_tien_tri.repository.custom.GroupRepositoryCustom;
+import com.example.game_tien_tri.utils.CursorUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@Transactional
+public class GroupRepositoryImpl implements GroupRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<GroupResponse> getGroups(String name, List<Integer> nameMatchIds, String sort, Integer userId, boolean joinedOnly, String cursor, int limit) {
+        String sortColumn;
+        if(sort == null || sort.equals("") || sort.equals("time")){
+            sortColumn = null;
+        }
+        else if(sort.equals("member")){
+            sortColumn = "g.member_count";
+        }
+        else if(sort.equals("activity")){
+            sortColumn = "g.last_activity_at";
+        }
+        else{
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        StringBuilder sql = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        sql.append("select g.group_id, g.name, g.description, g.is_private, g.created_at, gm.role, \n");
+        sql.append("g.member_count, g.post_count, g.last_activity_at \n");
+        sql.append("from user_group g \n");
+        sql.append(joinedOnly ? "join " : "left join ");
+        sql.append("group_members gm on gm.group_id = g.group_id and gm.user_id = :userId \n");
+        sql.append("where 1 = 1 ");
+        params.put("userId", userId);
+        if(nameMatchIds != null){
+            sql.append("and g.group_id in (:groupIds) ");
+            params.put("groupIds", nameMatchIds);
+        }
+        else if(name != null && !name.isEmpty()){
+            sql.append("and g.name like :name ");
+            params.put("name", "%" + name + "%");
+        }
+        if(cursor != null && !cursor.equals("")){
+            if(sortColumn == null){
+                sql.append("and g.group_id < :cursorId ");
+                params.put("cursorId", CursorUtils.decode(cursor, 1)[0]);
+            }
+            else{
+                long[] keys = CursorUtils.decode(cursor, 2);
+                sql.append("and (" + sortColumn + " < :cursorKey or (" + sortColumn + " = :cursorKey and g.group_id < :cursorId)) ");
+                params.put("cursorKey", sortColumn.equals("g.last_activity_at") ? new Timestamp(keys[0]) : keys[0]);
+                params.put("cursorId", keys[1]);
+            }
+        }
+        sql.append("\norder by ");
+        if(sortColumn != null){
+            sql.append(sortColumn + " desc, ");
+        }
+        sql.append("g.group_id desc");
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+        List<Object[]> rows = query.getResultList();
+        List<GroupResponse> result = new ArrayList<>();
+        for(Object[] row : rows){
+            GroupResponse groupResponse = new GroupResponse();
+            groupResponse.setId(((Number) row[0]).intValue());
+            groupResponse.setName((String) row[1]);
+            groupResponse.setDescription((String) row[2]);
+            groupResponse.setIsPrivate(toBoolean(row[3]));
+            groupResponse.setCreatedAt(toLocalDateTime(row[4]));
+            groupResponse.setUserRole((String) row[5]);
+            groupResponse.setCountUserJoin(((Number) row[6]).intValue());
+            groupResponse.setCountPost(((Number) row[7]).intValue());
+            groupResponse.setLastActivityAt(toLocalDateTime(row[8]));
+            result.add(groupResponse);
+        }
+        return result;
+    }
+
+    private Boolean toBoolean(Object value){
+        if(value instanceof Number number){
+            return number.intValue() != 0;
+        }
+        return (Boolean) value;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value){
+        if(value instanceof Timestamp timestamp){
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.game_tien_tri.repository.custom.Impl;
 
 import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.model.dto.PostCursorDTO;
+import com.example.game_tien_tri.model.dto.UserOfPost;
 import com.example.game_tien_tri.model.request.PostGroupRequest;
 import com.example.game_tien_tri.model.request.PostManagerResquest;
 import com.example.game_tien_tri.model.request.PostRequest;
+import com.example.game_tien_tri.model.response.PostResponse;
 import com.example.game_tien_tri.repository.custom.PostRepositoryCustom;
+import com.example.game_tien_tri.utils.CursorUtils;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
@@ -13,9 +17,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Repository
@@ -25,99 +33,172 @@ public class PostRepositoryImpl implements PostRepositoryCustom {
     private EntityManager entityManager;
 
     @Override
-    public List<PostEntity> getAllPosts(PostRequest postRequest) {
-        StringBuilder sql = new StringBuilder();
-        sql.append("select * from posts p \n");
-        sql.append("where status = 1 AND type = 'forum' ");
-        if(postRequest.getTitle()!=null && !postRequest.getTitle().equals("")){
-            sql.append(" and  title like '%").append(postRequest.getTitle()).append("%' \n");
-        }
-        if(postRequest.getSort()!=null && postRequest.getSort().length()>0){
-            if(postRequest.getSort().equals("time")){
-                sql.append(" order by post_id ");
-            }
-            else if(postRequest.getSort().equals("like")){
-                sql.append(" order by " + sortLike());
-            }
-            else{
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
-            }
+    public List<PostCursorDTO> getAllPosts(PostRequest postRequest, List<Integer> titleMatchIds) {
+        if(titleMatchIds != null && titleMatchIds.isEmpty()){
+            return new ArrayList<>();
+        }
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        where.append("where p.status = 1 and p.type = 'forum' ");
+        if(titleMatchIds != null){
+            where.append(" and p.post_id in (:postIds) \n");
+            params.put("postIds", titleMatchIds);
+        }
+        else if(postRequest.getTitle()!=null && !postRequest.getTitle().equals("")){
+            where.append(" and p.title like :title \n");
+            params.put("title", "%" + postRequest.getTitle() + "%");
+        }
+        return getFeed(where, params, postRequest.getSort(), postRequest.getTypeSort(),
+                postRequest.getCursor(), postRequest.getLimit());
+    }
+
+    @Override
+    public List<PostCursorDTO> getPostsGroup(PostGroupRequest postGroupRequest) {
+        StringBuilder where = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        where.append("where p.status = 1 and p.type = 'blog' and p.group_id = :groupId ");
+        params.put("groupId", postGroupRequest.getGroupId());
+        return getFeed(where, params, postGroupRequest.getSort(), postGroupRequest.getTypeSort(),
+                postGroupRequest.getCursor(), postGroupRequest.getLimit());
+    }
+
+    private List<PostCursorDTO> getFeed(StringBuilder where, Map<String, Object> params,
+                                        String sort, String typeSort, String cursor, Integer limit) {
+        boolean byLike;
+        if(sort == null || sort.equals("") || sort.equals("time")){
+            byLike = false;
+        }
+        else if(sort.equals("like")){
+            byLike = true;
         }
         else{
-            sql.append(" order by post_id ");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        String direction;
+        if(typeSort == null || typeSort.equals("")){
+            direction = "desc";
         }
-        if(postRequest.getTypeSort() == null || postRequest.getTypeSort().equals("")){
-            sql.append(" desc");
+        else if(typeSort.equals("desc") || typeSort.equals("asc")){
+            direction = typeSort;
         }
         else{
-            if(!postRequest.getTypeSort().equals("desc") && !postRequest.getTypeSort().equals("asc")){
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
-            }
-            sql.append(" " + postRequest.getTypeSort());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
         }
-        Query query = entityManager.createNativeQuery(sql.toString(), PostEntity.class);
-        return query.getResultList();
-    }
+        String compare = direction.equals("desc") ? "<" : ">";
+        String countLike = "p.like_count";
 
-    public List<PostEntity> getPostsGroup(PostGroupRequest postGroupRequest) {
         StringBuilder sql = new StringBuilder();
-        sql.append("select * from posts p \n");
-        sql.append("where status = 1 and p.type = 'blog' and group_id = " + postGroupRequest.getGroupId() + " ");
-        if(postGroupRequest.getSort()!=null && postGroupRequest.getSort().length()>0){
-            if(postGroupRequest.getSort().equals("time")){
-                sql.append(" order by post_id ");
-            }
-            else if(postGroupRequest.getSort().equals("like")){
-                sql.append(" order by " + sortLike());
+        sql.append("select p.post_id, " + countLike + " as count_like from posts p \n");
+        sql.append(where);
+        if(cursor != null && !cursor.equals("")){
+            if(byLike){
+                long[] keys = CursorUtils.decode(cursor, 2);
+                sql.append(" and (" + countLike + " " + compare + " :cursorLike \n" +
+                        "    or (" + countLike + " = :cursorLike and p.post_id " + compare + " :cursorId)) \n");
+                params.put("cursorLike", keys[0]);
+                params.put("cursorId", keys[1]);
             }
             else{
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+                long[] keys = CursorUtils.decode(cursor, 1);
+                sql.append(" and p.post_id " + compare + " :cursorId \n");
+                params.put("cursorId", keys[0]);
             }
         }
-        else{
-            sql.append(" order by post_id ");
-        }
-        if(postGroupRequest.getTypeSort() == null || postGroupRequest.getTypeSort().equals("")){
-            sql.append(" desc");
+        if(byLike){
+            sql.append(" order by count_like " + direction + ", p.post_id " + direction);
         }
         else{
-            if(!postGroupRequest.getTypeSort().equals("desc") || !postGroupRequest.getTypeSort().equals("asc")){
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
-            }
-            sql.append(" " + postGroupRequest.getTypeSort());
+            sql.append(" order by p.post_id " + direction);
         }
-        Query query = entityManager.createNativeQuery(sql.toString(), PostEntity.class);
-        return query.getResultList();
+        Query query = entityManager.createNativeQuery(sql.toString());
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> new PostCursorDTO(((Number) row[0]).intValue(), ((Number) row[1]).intValue()))
+                .collect(Collectors.toList());
     }
 
-    public List<PostEntity> getAll(PostManagerResquest postManagerResquest) {
+    @Override
+    public List<PostEntity> getAll(PostManagerResquest postManagerResquest, List<Integer> titleMatchIds) {
+        if(titleMatchIds != null && titleMatchIds.isEmpty()){
+            return new ArrayList<>();
+        }
         StringBuilder sql = new StringBuilder();
-        sql.append("select p.post_id, p.user_id, p.group_id, p.title, p.content, p.type, p.created_at, p.updated_at, p.status \n" +
-                "from posts p \n");
+        Map<String, Object> params = new HashMap<>();
+        sql.append("select p.* from posts p \n");
         sql.append("join users u on u.user_id = p.user_id \n");
-        sql.append("where 1 = 1 and ");
-        Map<String, String> mp = new HashMap<>();
-        mp.put("title", postManagerResquest.getTitle());
-        mp.put("u.username", postManagerResquest.getUsernameByPost());
-        String sql_tmp = mp.entrySet().stream()
-                .filter(e -> e.getValue() != null)
-                .map(e -> e.getKey() + " like '%" + e.getValue() + "%'")
-                .collect(Collectors.joining(" and "));
-        sql.append(sql_tmp);
+        sql.append("where 1 = 1 ");
+        if(titleMatchIds != null){
+            sql.append(" and p.post_id in (:postIds) ");
+            params.put("postIds", titleMatchIds);
+        }
+        else if(postManagerResquest.getTitle() != null){
+            sql.append(" and p.title like :title ");
+            params.put("title", "%" + postManagerResquest.getTitle() + "%");
+        }
+        if(postManagerResquest.getUsernameByPost() != null){
+            sql.append(" and u.username like :username ");
+            params.put("username", "%" + postManagerResquest.getUsernameByPost() + "%");
+        }
         if(postManagerResquest.getStatus() != null){
-            sql.append(" and p.status = " + postManagerResquest.getStatus());
+            sql.append(" and p.status = :status ");
+            params.put("status", postManagerResquest.getStatus());
         }
         sql.append(" order by p.post_id desc");
         Query query = entityManager.createNativeQuery(sql.toString(), PostEntity.class);
+        params.forEach(query::setParameter);
         return query.getResultList();
     }
 
-
-    private String sortLike(){
+    @Override
+    public List<PostResponse> getPostResponses(List<Integer> postIds, Integer userId) {
+        if(postIds.isEmpty()){
+            return new ArrayList<>();
+        }
         StringBuilder sql = new StringBuilder();
-        sql.append(" ( select count(l.like_id) from likes l\n" +
-                "    where l.post_id = p.post_id ) ");
-        return sql.toString();
+        sql.append("select p.post_id, p.title, p.content, p.created_at, p.updated_at, u.username, u.url_avatar, \n");
+        sql.append("p.like_count, p.comment_count, ul.post_id is not null \n");
+        sql.append("from posts p \n");
+        sql.append("join users u on u.user_id = p.user_id \n");
+        sql.append("left join ( select distinct l.post_id from likes l \n" +
+                "    where l.user_id = :userId and l.post_id in (:postIds) ) ul on ul.post_id = p.post_id \n");
+        sql.append("where p.post_id in (:postIds)");
+        Query query = entityManager.createNativeQuery(sql.toString());
+        query.setParameter("postIds", postIds);
+        query.setParameter("userId", userId);
+        List<Object[]> rows = query.getResultList();
+        Map<Integer, PostResponse> responses = new HashMap<>();
+        for(Object[] row : rows){
+            PostResponse postResponse = new PostResponse();
+            postResponse.setId(((Number) row[0]).intValue());
+            postResponse.setTitle((String) row[1]);
+            postResponse.setContent((String) row[2]);
+            postResponse.setCreatedAt(toLocalDateTime(row[3]));
+            postResponse.setUpdatedAt(toLocalDateTime(row[4]));
+            postResponse.setUserOfPost(new UserOfPost((String) row[5], (String) row[6]));
+            postResponse.setCountLike(((Number) row[7]).intValue());
+            postResponse.setCountComment(((Number) row[8]).intValue());
+            postResponse.setUserIsLike(toBoolean(row[9]));
+            responses.put(postResponse.getId(), postResponse);
+        }
+        return postIds.stream()
+                .map(responses::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
+    private Boolean toBoolean(Object value){
+        if(value instanceof Number number){
+            return number.intValue() != 0;
+        }
+        return (Boolean) value;
+    }
+
+    private LocalDateTime toLocalDateTime(Object value){
+        if(value instanceof Timestamp timestamp){
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
 }
@@ -1,14 +1,17 @@
 package com.example.game_tien_tri.repository.custom;
 
 import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.model.dto.PostCursorDTO;
 import com.example.game_tien_tri.model.request.PostGroupRequest;
 import com.example.game_tien_tri.model.request.PostManagerResquest;
 import com.example.game_tien_tri.model.request.PostRequest;
+import com.example.game_tien_tri.model.response.PostResponse;
 
 import java.util.List;
 
 public interface PostRepositoryCustom {
-    List<PostEntity> getAllPosts(PostRequest postRequest);
-    List<PostEntity> getPostsGroup(PostGroupRequest postGroupRequest);
-    List<PostEntity> getAll(PostManagerResquest postManagerResquest);
+    List<PostCursorDTO> getAllPosts(PostRequest postRequest, List<Integer> titleMatchIds);
+    List<PostCursorDTO> getPostsGroup(PostGroupRequest postGroupRequest);
+    List<PostEntity> getAll(PostManagerResquest postManagerResquest, List<Integer> titleMatchIds);
+    List<PostResponse> getPostResponses(List<Integer> postIds, Integer userId);
 }
@@ -0,0 +1,60 @@
+package com.example.game_tien_tri.scheduler;
+
+import com.example.game_tien_tri.counter.HotCounterService;
+import com.example.game_tien_tri.repository.CommentRepository;
+import com.example.game_tien_tri.repository.GroupRepository;
+import com.example.game_tien_tri.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class CounterReconcileJob {
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final GroupRepository groupRepository;
+    private final HotCounterService hotCounterService;
+
+    @Value("${counter.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(initialDelayString = "${counter.reconcile.initial-delay:60000}",
+            fixedDelayString = "${counter.reconcile.delay:600000}")
+    public void reconcile() {
+        // Hot ids are re-read per batch: a row promoted mid-walk must not be recounted and then get its delta folded on top.
+        Integer lastId = 0;
+        Integer upperId = postRepository.findBatchUpperId(lastId, batchSize);
+        while(upperId != null){
+            postRepository.reconcileCounters(lastId, upperId, excluded(hotCounterService.hotPostIds()));
+            lastId = upperId;
+            upperId = postRepository.findBatchUpperId(lastId, batchSize);
+        }
+        lastId = 0;
+        upperId = commentRepository.findBatchUpperId(lastId, batchSize);
+        while(upperId != null){
+            commentRepository.reconcileLikeCounts(lastId, upperId, excluded(hotCounterService.hotCommentIds()));
+            lastId = upperId;
+            upperId = commentRepository.findBatchUpperId(lastId, batchSize);
+        }
+        lastId = 0;
+        upperId = groupRepository.findBatchUpperId(lastId, batchSize);
+        while(upperId != null){
+            groupRepository.reconcileCounters(lastId, upperId);
+            lastId = upperId;
+            upperId = groupRepository.findBatchUpperId(lastId, batchSize);
+        }
+    }
+
+    // Hot rows lag by their unfolded delta; id 0 never exists and keeps the IN list non-empty.
+    private List<Integer> excluded(Iterable<Integer> hotIds) {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(0);
+        hotIds.forEach(ids::add);
+        return ids;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.game_tien_tri.search;
+
+import com.example.game_tien_tri.model.dto.GroupDTO;
+import com.example.game_tien_tri.repository.GroupRepository;
+import com.example.game_tien_tri.utils.VietnameseTextUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class GroupSearchIndex {
+    // Folded Vietnamese syllables are often two letters, so names are indexed by both bigrams and trigrams.
+    private static final int MIN_GRAM = 2;
+    private static final int MAX_GRAM = 3;
+    private static final Comparator<Match> MATCH_ORDER = Comparator.<Match>comparingInt(match -> match.rank)
+            .thenComparingInt(match -> match.document.name.length())
+            .thenComparing(match -> match.document.group.getId(), Comparator.reverseOrder());
+
+    private final GroupRepository groupRepository;
+
+    @Value("${search.group.max-results:1000}")
+    private int maxResults;
+
+    @Value("${search.group.batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Integer>> grams = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Set<Integer> removedDuringBuild = new HashSet<>();
+    private boolean building;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        lock.writeLock().lock();
+        try{
+            grams.clear();
+            documents.clear();
+            removedDuringBuild.clear();
+            building = true;
+            ready = false;
+        }finally{
+            lock.writeLock().unlock();
+        }
+        List<GroupDTO> batch = groupRepository.findIndexBatch(0, PageRequest.of(0, batchSize));
+        while(!batch.isEmpty()){
+            lock.writeLock().lock();
+            try{
+                for(GroupDTO group : batch){
+                    if(!documents.containsKey(group.getId()) && !removedDuringBuild.contains(group.getId())){
+                        add(group);
+                    }
+                }
+            }finally{
+                lock.writeLock().unlock();
+            }
+            batch = groupRepository.findIndexBatch(batch.get(batch.size() - 1).getId(), PageRequest.of(0, batchSize));
+        }
+        lock.writeLock().lock();
+        try{
+            building = false;
+            removedDuringBuild.clear();
+            ready = true;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(GroupDTO group) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try{
+                removeDocument(group.getId());
+                add(group);
+            }finally{
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Integer groupId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try{
+                if(building){
+                    removedDuringBuild.add(groupId);
+                }
+                removeDocument(groupId);
+            }finally{
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Every matching id, unranked and uncapped, for callers that filter in SQL and apply their own sort and cursor.
+    public List<Integer> matchIds(String text) {
+        List<String> tokens = VietnameseTextUtils.tokenize(text);
+        List<Integer> ids = new ArrayList<>();
+        if(tokens.isEmpty()){
+            return ids;
+        }
+        lock.readLock().lock();
+        try{
+            for(Integer groupId : candidates(tokens)){
+                if(containsAll(documents.get(groupId).name, tokens)){
+                    ids.add(groupId);
+                }
+            }
+            return ids;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    // Relevance order, capped at search.group.max-results.
+    public List<GroupDTO> suggest(String text, int limit) {
+        return rank(text, Math.min(limit, maxResults));
+    }
+
+    // Every query token must occur in the name, in any order. A name containing the whole query ranks first
+    // (prefix, then word start, then anywhere), then names that only match token by token.
+    // Only the best `limit` matches are kept, so a common word does not sort every group that contains it.
+    private List<GroupDTO> rank(String text, int limit) {
+        List<String> tokens = VietnameseTextUtils.tokenize(text);
+        if(tokens.isEmpty() || limit <= 0){
+            return new ArrayList<>();
+        }
+        String query = String.join(" ", tokens);
+        String wordStart = " " + query;
+        lock.readLock().lock();
+        try{
+            PriorityQueue<Match> top = new PriorityQueue<>(limit, MATCH_ORDER.reversed());
+            for(Integer groupId : candidates(tokens)){
+                Document document = documents.get(groupId);
+                if(!containsAll(document.name, tokens)){
+                    continue;
+                }
+                Match match = new Match(document, matchRank(document.name, query, wordStart));
+                if(top.size() < limit){
+                    top.add(match);
+                }
+                else if(MATCH_ORDER.compare(match, top.peek()) < 0){
+                    top.poll();
+                    top.add(match);
+                }
+            }
+            return top.stream()
+                    .sorted(MATCH_ORDER)
+                    .map(match -> match.document.group)
+                    .toList();
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    // Smallest posting list over the grams of all tokens; single-letter tokens cannot narrow the scan.
+    private Collection<Integer> candidates(List<String> tokens) {
+        Set<Integer> smallest = null;
+        for(String token : tokens){
+            for(String gram : grams(token, Math.min(token.length(), MAX_GRAM))){
+                Set<Integer> list = grams.get(gram);
+                if(list == null){
+                    return List.of();
+                }
+                if(smallest == null || list.size() < smallest.size()){
+                    smallest = list;
+                }
+            }
+        }
+        return smallest == null ? documents.keySet() : smallest;
+    }
+
+    private static boolean containsAll(String name, List<String> tokens) {
+        for(String token : tokens){
+            if(!name.contains(token)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int matchRank(String name, String query, String wordStart) {
+        if(name.startsWith(query)){
+            return 0;
+        }
+        if(name.contains(wordStart)){
+            return 1;
+        }
+        return name.contains(query) ? 2 : 3;
+    }
+
+    private void add(GroupDTO group) {
+        String name = normalize(group.getName());
+        Set<String> nameGrams = grams(name, MIN_GRAM);
+        nameGrams.addAll(grams(name, MAX_GRAM));
+        for(String gram : nameGrams){
+            grams.computeIfAbsent(gram, key -> new HashSet<>()).add(group.getId());
+        }
+        documents.put(group.getId(), new Document(group, name, nameGrams.toArray(new String[0])));
+    }
+
+    private void removeDocument(Integer groupId) {
+        Document document = documents.remove(groupId);
+        if(document == null){
+            return;
+        }
+        for(String gram : document.grams){
+            Set<Integer> list = grams.get(gram);
+            if(list != null){
+                list.remove(groupId);
+                if(list.isEmpty()){
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", VietnameseTextUtils.tokenize(text));
+    }
+
+    // Grams spanning a space are skipped: query tokens never contain one.
+    private static Set<String> grams(String text, int size) {
+        Set<String> result = new HashSet<>();
+        if(size < MIN_GRAM){
+            return result;
+        }
+        for(int i = 0; i + size <= text.length(); i++){
+            String gram = text.substring(i, i + size);
+            if(gram.indexOf(' ') < 0){
+                result.add(gram);
+            }
+        }
+        return result;
+    }
+
+    private static final class Document {
+        private final GroupDTO group;
+        private final String name;
+        private final String[] grams;
+
+        private Document(GroupDTO group, String name, String[] grams) {
+            this.group = group;
+            this.name = name;
+            this.grams = grams;
+        }
+    }
+
+    private record Match(Document document, int rank) {
+    }
+}
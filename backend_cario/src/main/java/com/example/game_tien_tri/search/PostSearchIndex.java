@@ -0,0 +1,279 @@
+package com.example.game_tien_tri.search;
+
+import com.example.game_tien_tri.model.dto.PostDTO;
+import com.example.game_tien_tri.repository.PostRepository;
+import com.example.game_tien_tri.utils.VietnameseTextUtils;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@RequiredArgsConstructor
+public class PostSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(PostSearchIndex.class);
+    private static final int TITLE_WEIGHT = 3;
+    // Rough heap cost of one HashMap entry with boxed key/value, one term and one document.
+    private static final long POSTING_BYTES = 64;
+    private static final long TERM_BYTES = 96;
+    private static final long DOCUMENT_BYTES = 80;
+
+    private final PostRepository postRepository;
+
+    @Value("${search.post.max-memory-mb:64}")
+    private long maxMemoryMb;
+
+    @Value("${search.post.max-results:1000}")
+    private int maxResults;
+
+    @Value("${search.post.batch-size:1000}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final Set<Integer> removedDuringBuild = new HashSet<>();
+    private long estimatedBytes;
+    private boolean building;
+    private boolean overBudget;
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        lock.writeLock().lock();
+        try{
+            clear();
+            overBudget = false;
+            building = true;
+            ready = false;
+        }finally{
+            lock.writeLock().unlock();
+        }
+        List<PostDTO> batch = postRepository.findIndexBatch(0, PageRequest.of(0, batchSize));
+        while(!batch.isEmpty()){
+            lock.writeLock().lock();
+            try{
+                if(overBudget){
+                    return;
+                }
+                for(PostDTO post : batch){
+                    if(!documents.containsKey(post.getId()) && !removedDuringBuild.contains(post.getId())){
+                        add(post);
+                    }
+                }
+            }finally{
+                lock.writeLock().unlock();
+            }
+            batch = postRepository.findIndexBatch(batch.get(batch.size() - 1).getId(), PageRequest.of(0, batchSize));
+        }
+        lock.writeLock().lock();
+        try{
+            building = false;
+            removedDuringBuild.clear();
+            ready = !overBudget;
+        }finally{
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(PostDTO post) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try{
+                if(overBudget){
+                    return;
+                }
+                removeDocument(post.getId());
+                add(post);
+            }finally{
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Integer postId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try{
+                if(building){
+                    removedDuringBuild.add(postId);
+                }
+                removeDocument(postId);
+            }finally{
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Searches fall back to SQL LIKE while over budget; retry so the index comes back once posts are removed or the budget is raised.
+    @Scheduled(initialDelayString = "${search.post.retry-delay-ms:600000}", fixedDelayString = "${search.post.retry-delay-ms:600000}")
+    public void retryIfOverBudget() {
+        boolean retry;
+        lock.readLock().lock();
+        try{
+            retry = overBudget;
+        }finally{
+            lock.readLock().unlock();
+        }
+        if(retry){
+            build();
+        }
+    }
+
+    // Relevance order, capped at search.post.max-results; used when the caller asked for no explicit sort.
+    public List<Integer> search(String text, String type, Integer status) {
+        return score(text, type, status).entrySet().stream()
+                .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed()))
+                .limit(maxResults)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    // Every matching id, unranked and uncapped, for callers that filter in SQL and apply their own order.
+    public List<Integer> matchIds(String text, String type, Integer status) {
+        return new ArrayList<>(score(text, type, status).keySet());
+    }
+
+    private Map<Integer, Double> score(String text, String type, Integer status) {
+        Set<String> terms = new LinkedHashSet<>(VietnameseTextUtils.tokenize(text));
+        Map<Integer, Double> scores = new HashMap<>();
+        if(terms.isEmpty()){
+            return scores;
+        }
+        lock.readLock().lock();
+        try{
+            List<Map<Integer, Integer>> lists = new ArrayList<>();
+            List<Double> idfs = new ArrayList<>();
+            for(String term : terms){
+                Map<Integer, Integer> list = postings.get(term);
+                if(list == null){
+                    return scores;
+                }
+                lists.add(list);
+                idfs.add(Math.log(1.0 + (double) documents.size() / list.size()));
+            }
+            Map<Integer, Integer> smallest = lists.stream()
+                    .min(Comparator.comparingInt(Map::size))
+                    .get();
+            for(Integer postId : smallest.keySet()){
+                Document document = documents.get(postId);
+                if((type != null && !type.equals(document.type)) || (status != null && !status.equals(document.status))){
+                    continue;
+                }
+                double score = 0;
+                for(int i = 0; i < lists.size() && score >= 0; i++){
+                    Integer frequency = lists.get(i).get(postId);
+                    score = frequency == null ? -1 : score + frequency * idfs.get(i);
+                }
+                if(score >= 0){
+                    scores.put(postId, score);
+                }
+            }
+            return scores;
+        }finally{
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(PostDTO post) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for(String term : VietnameseTextUtils.tokenize(post.getTitle())){
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for(String term : VietnameseTextUtils.tokenize(post.getContent())){
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        long cost = DOCUMENT_BYTES + frequencies.size() * (POSTING_BYTES + Long.BYTES);
+        for(String term : frequencies.keySet()){
+            if(!postings.containsKey(term)){
+                cost += TERM_BYTES + 2L * term.length();
+            }
+        }
+        if(estimatedBytes + cost > maxMemoryMb * 1024 * 1024){
+            log.warn("Post search index exceeded {} MB, falling back to SQL search until the next rebuild", maxMemoryMb);
+            clear();
+            overBudget = true;
+            building = false;
+            ready = false;
+            return;
+        }
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(post.getId(), frequency));
+        documents.put(post.getId(), new Document(post.getType(), post.getStatus(),
+                frequencies.keySet().toArray(new String[0]), cost));
+        estimatedBytes += cost;
+    }
+
+    private void removeDocument(Integer postId) {
+        Document document = documents.remove(postId);
+        if(document == null){
+            return;
+        }
+        for(String term : document.terms){
+            Map<Integer, Integer> list = postings.get(term);
+            if(list != null){
+                list.remove(postId);
+                if(list.isEmpty()){
+                    postings.remove(term);
+                }
+            }
+        }
+        estimatedBytes -= document.cost;
+    }
+
+    private void afterCommit(Runnable update) {
+        if(!TransactionSynchronizationManager.isSynchronizationActive()){
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private void clear() {
+        postings.clear();
+        documents.clear();
+        removedDuringBuild.clear();
+        estimatedBytes = 0;
+    }
+
+    private static final class Document {
+        private final String type;
+        private final Integer status;
+        private final String[] terms;
+        private final long cost;
+
+        private Document(String type, Integer status, String[] terms, long cost) {
+            this.type = type;
+            this.status = status;
+            this.terms = terms;
+            this.cost = cost;
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.example.game_tien_tri.service;
 
 import com.example.game_tien_tri.model.dto.CommentDTO;
-import com.example.game_tien_tri.model.response.CommentResponse;
+import com.example.game_tien_tri.model.request.CommentRequest;
+import com.example.game_tien_tri.model.response.CommentPageResponse;
 import jakarta.servlet.http.HttpServletRequest;
 
-import java.util.List;
-
 public interface CommentService {
     CommentDTO createComment(CommentDTO comment, HttpServletRequest request);
     void deleteComment(Integer id, HttpServletRequest request);
-    List<CommentResponse> getCommentByPost(Integer postId, HttpServletRequest request);
+    CommentPageResponse getCommentByPost(Integer postId, CommentRequest commentRequest, HttpServletRequest request);
+    CommentPageResponse getReplies(Integer commentId, CommentRequest commentRequest, HttpServletRequest request);
 }
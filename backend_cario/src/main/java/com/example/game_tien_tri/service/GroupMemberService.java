@@ -1,12 +1,18 @@
 package com.example.game_tien_tri.service;
 
 import jakarta.servlet.http.HttpServletRequest;
-import com.example.game_tien_tri.model.response.GroupMemberResponse;
+import com.example.game_tien_tri.model.request.GroupMemberBulkRequest;
+import com.example.game_tien_tri.model.request.GroupMemberRequest;
+import com.example.game_tien_tri.model.response.GroupMemberBulkResult;
+import com.example.game_tien_tri.model.response.GroupMemberPageResponse;
 import java.util.List;
 
 public interface GroupMemberService {
     void joinGroup(Integer groupId, HttpServletRequest request);
     void updateRole(Integer groupId, Integer userId, String role, HttpServletRequest request);
     void deleteGroup(Integer groupId, Integer userId, HttpServletRequest request);
-    List<GroupMemberResponse> getGroupMembers(Integer groupId, HttpServletRequest request);
+    GroupMemberPageResponse getGroupMembers(GroupMemberRequest groupMemberRequest, HttpServletRequest request);
+    List<GroupMemberBulkResult> addMembers(GroupMemberBulkRequest bulkRequest, HttpServletRequest request);
+    List<GroupMemberBulkResult> removeMembers(GroupMemberBulkRequest bulkRequest, HttpServletRequest request);
+    List<GroupMemberBulkResult> updateRoles(GroupMemberBulkRequest bulkRequest, HttpServletRequest request);
 }
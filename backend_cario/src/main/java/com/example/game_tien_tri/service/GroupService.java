@@ -2,14 +2,16 @@ package com.example.game_tien_tri.service;
 
 import jakarta.servlet.http.HttpServletRequest;
 import com.example.game_tien_tri.model.dto.GroupDTO;
-import com.example.game_tien_tri.model.response.GroupResponse;
-import jakarta.servlet.http.HttpServletRequest;
+import com.example.game_tien_tri.model.request.GroupRequest;
+import com.example.game_tien_tri.model.response.GroupPageResponse;
 import java.util.List;
+import jakarta.servlet.http.HttpServletRequest;
 
 public interface GroupService {
     GroupDTO createGroup(GroupDTO groupDTO, HttpServletRequest request);
     GroupDTO updateStatus(Integer id, Boolean status, HttpServletRequest request);
     void deleteGroup(Integer id, HttpServletRequest request);
-    List<GroupResponse> getByUser(HttpServletRequest request);
-    List<GroupResponse> getAll(String name, HttpServletRequest request);
+    GroupPageResponse getByUser(GroupRequest groupRequest, HttpServletRequest request);
+    GroupPageResponse getAll(GroupRequest groupRequest, HttpServletRequest request);
+    List<GroupDTO> suggest(String name, Integer limit, HttpServletRequest request);
 }
@@ -1,8 +1,9 @@
 package com.example.game_tien_tri.service;
 
 import com.example.game_tien_tri.model.dto.LikeDTO;
+import com.example.game_tien_tri.model.response.LikeResponse;
 import jakarta.servlet.http.HttpServletRequest;
 
 public interface LikeService {
-    void like(LikeDTO likeDTO, HttpServletRequest request);
+    LikeResponse like(LikeDTO likeDTO, HttpServletRequest request);
 }
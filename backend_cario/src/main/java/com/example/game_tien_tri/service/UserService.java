@@ -3,8 +3,12 @@ package com.example.game_tien_tri.service;
 import com.example.game_tien_tri.model.dto.LoginDTO;
 import com.example.game_tien_tri.model.dto.RegisterDTO;
 import com.example.game_tien_tri.model.response.LoginResponse;
+import jakarta.servlet.http.HttpServletRequest;
 
 public interface UserService {
     void registerUser(RegisterDTO registerDTO);
     LoginResponse loginUser(LoginDTO loginDTO);
+    void updateStatus(Integer id, Integer status, HttpServletRequest request);
+    void updateRole(Integer id, String role, HttpServletRequest request);
+    void updateAvatar(String urlAvatar, HttpServletRequest request);
 }
@@ -1,24 +1,40 @@
 package com.example.game_tien_tri.service.impl;
 
+import com.example.game_tien_tri.buffer.LikeWriteBuffer;
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
 import com.example.game_tien_tri.convert.CommentConvert;
+import com.example.game_tien_tri.counter.HotCounterService;
 import com.example.game_tien_tri.entity.CommentEntity;
 import com.example.game_tien_tri.entity.UserEntity;
 import com.example.game_tien_tri.model.dto.CommentDTO;
+import com.example.game_tien_tri.model.dto.CommentRowDTO;
 import com.example.game_tien_tri.model.dto.UserOfComment;
+import com.example.game_tien_tri.model.request.CommentRequest;
+import com.example.game_tien_tri.model.response.CommentPageResponse;
 import com.example.game_tien_tri.model.response.CommentResponse;
 import com.example.game_tien_tri.repository.CommentRepository;
 import com.example.game_tien_tri.repository.LikeRepository;
+import com.example.game_tien_tri.repository.PostRepository;
 import com.example.game_tien_tri.service.CommentService;
+import com.example.game_tien_tri.utils.CursorUtils;
 import com.example.game_tien_tri.utils.ExtractUserUtils;
+import com.example.game_tien_tri.utils.SiteRoles;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,8 +43,17 @@ public class CommentServiceImpl implements CommentService {
     private final CommentRepository repository;
     private final ExtractUserUtils extractUserUtils;
     private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final PostFeedCache postFeedCache;
+    private final CommentTreeCache commentTreeCache;
+    private final HotCounterService hotCounterService;
+    private final LikeWriteBuffer likeWriteBuffer;
+
+    @Value("${comment.reply-preview-size:3}")
+    private int replyPreviewSize;
 
     @Override
+    @Transactional
     public CommentDTO createComment(CommentDTO comment, HttpServletRequest request) {
         try{
             UserEntity user = extractUserUtils.extract(request);
@@ -40,6 +65,9 @@ public class CommentServiceImpl implements CommentService {
                 commentEntity.setParent(commentParent);
             }
             CommentEntity commented = repository.save(commentEntity);
+            postRepository.updateCommentCount(commented.getPost().getId(), 1);
+            postFeedCache.evictPost(commented.getPost().getId());
+            commentTreeCache.evictPost(commented.getPost().getId());
             return new CommentDTO(commented.getId(),
                     commented.getContent(),
                     commented.getParent() != null ? commented.getParent().getId() : null,
@@ -51,51 +79,108 @@ public class CommentServiceImpl implements CommentService {
     }
 
     @Override
+    @Transactional
     public void deleteComment(Integer id, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
         CommentEntity commentEntity = repository.findById(id).orElseThrow(() -> new ResponseStatusException(
                 HttpStatus.NOT_FOUND,
                 "Comment not found"
         ));
-        if(!user.getRole().equals("admin") && !Objects.equals(user.getId(), commentEntity.getUser().getId())) {
+        if(!SiteRoles.isAdmin(user.getRole()) && !Objects.equals(user.getId(), commentEntity.getUser().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to delete this comment");
         }
+        int removed = countSubtree(commentEntity);
         repository.deleteById(id);
+        postRepository.updateCommentCount(commentEntity.getPost().getId(), -removed);
+        postFeedCache.evictPost(commentEntity.getPost().getId());
+        commentTreeCache.evictPost(commentEntity.getPost().getId());
+    }
+
+    @Override
+    public CommentPageResponse getCommentByPost(Integer postId, CommentRequest commentRequest, HttpServletRequest request) {
+        UserEntity userEntity = extractUserUtils.extract(request);
+        return getThreadPage(postId, null, commentRequest, userEntity.getId());
     }
 
     @Override
-    public List<CommentResponse> getCommentByPost(Integer postId, HttpServletRequest request) {
+    public CommentPageResponse getReplies(Integer commentId, CommentRequest commentRequest, HttpServletRequest request) {
         UserEntity userEntity = extractUserUtils.extract(request);
+        return getThreadPage(null, commentId, commentRequest, userEntity.getId());
+    }
+
+    private CommentPageResponse getThreadPage(Integer postId, Integer parentId, CommentRequest commentRequest, Integer userId) {
+        int limit = CursorUtils.pageSize(commentRequest.getLimit());
+        int afterId = commentRequest.getCursor() == null ? 0 : (int) CursorUtils.decode(commentRequest.getCursor(), 1)[0];
         try{
-            List<CommentResponse> result = new ArrayList<>();
-            List<CommentEntity> list = repository.findByPostId(postId);
-            for(CommentEntity commentEntity : list){
-                CommentResponse commentResponse = convert.toCommentResponse(commentEntity);
-                UserEntity user = commentEntity.getUser();
-                UserOfComment us = new UserOfComment();
-                us.setUsername(user.getUsername());
-                us.setUrlAvatar(us.getUrlAvatar());
-                commentResponse.setUser(us);
-                commentResponse.setLike(likeRepository.existsByUserIdAndCommentId(userEntity.getId(), commentEntity.getId()));
-                commentResponse.setCountLike(likeRepository.countByUserIdAndCommentId(userEntity.getId(), commentEntity.getId()));
-                List<CommentEntity> commentChildren = commentEntity.getChildren();
-                List<CommentResponse> commentChildrenResponse = new ArrayList<>();
-                for(CommentEntity commentChild : commentChildren){
-                    CommentResponse commentChildResponse = convert.toCommentResponse(commentChild);
-                    UserEntity userChild = commentChild.getUser();
-                    UserOfComment usChild = new UserOfComment();
-                    usChild.setUsername(userChild.getUsername());
-                    usChild.setUrlAvatar(usChild.getUrlAvatar());
-                    commentChildResponse.setUser(usChild);
-                    commentChildrenResponse.add(commentChildResponse);
+            String key = CommentTreeCache.pageKey(postId, parentId, commentRequest.getCursor(), limit);
+            CommentTreeCache.Page page = commentTreeCache.getPage(key);
+            if(page == null){
+                Integer threadPostId = parentId == null ? postId : repository.findPostIdById(parentId);
+                if(threadPostId == null){
+                    return new CommentPageResponse(new ArrayList<>(), null);
                 }
-                commentResponse.setCommentsChildren(commentChildrenResponse);
-                result.add(commentResponse);
+                page = loadThreadPage(threadPostId, parentId, afterId, limit);
+                commentTreeCache.putPage(key, page);
+            }
+            List<Integer> allIds = new ArrayList<>();
+            page.getRows().forEach(row -> allIds.add(row.getId()));
+            page.getPreviews().forEach(preview -> allIds.add(preview.getId()));
+            Set<Integer> liked = allIds.isEmpty() ? Set.of() : new HashSet<>(likeRepository.findLikedCommentIds(userId, allIds));
+            Map<Integer, CommentResponse> byId = new LinkedHashMap<>();
+            for(CommentRowDTO row : page.getRows()){
+                byId.put(row.getId(), toCommentResponse(row, userId, liked, page.getReplyCounts()));
             }
-            return result;
+            for(CommentRowDTO preview : page.getPreviews()){
+                CommentResponse parent = byId.get(preview.getParentId());
+                if(parent != null){
+                    parent.getCommentsChildren().add(toCommentResponse(preview, userId, liked, page.getReplyCounts()));
+                }
+            }
+            return new CommentPageResponse(new ArrayList<>(byId.values()), page.getNextCursor());
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
-}
 
+    private CommentTreeCache.Page loadThreadPage(Integer postId, Integer parentId, int afterId, int limit) {
+        List<CommentRowDTO> rows = repository.getThreadPage(postId, parentId, afterId, limit);
+        String nextCursor = null;
+        if(rows.size() > limit){
+            rows = rows.subList(0, limit);
+            nextCursor = CursorUtils.encode(rows.get(limit - 1).getId());
+        }
+        List<Integer> ids = rows.stream().map(CommentRowDTO::getId).toList();
+        List<CommentRowDTO> previews = parentId == null ? repository.getFirstReplies(ids, replyPreviewSize) : List.of();
+        List<Integer> allIds = new ArrayList<>(ids);
+        previews.forEach(preview -> allIds.add(preview.getId()));
+        return new CommentTreeCache.Page(postId, List.copyOf(rows), List.copyOf(previews),
+                repository.countReplies(allIds), nextCursor);
+    }
+
+    private CommentResponse toCommentResponse(CommentRowDTO row, Integer userId, Set<Integer> liked, Map<Integer, Integer> replyCounts) {
+        UserOfComment us = new UserOfComment();
+        us.setUsername(row.getUsername());
+        us.setUrlAvatar(row.getUrlAvatar());
+        int countLike = row.getLikeCount() + (int) hotCounterService.pendingCommentLikes(row.getId());
+        boolean isLike = liked.contains(row.getId());
+        if(likeWriteBuffer.isEnabled()){
+            countLike += likeWriteBuffer.pendingCommentDelta(row.getId());
+            Boolean pendingState = likeWriteBuffer.pendingCommentState(userId, row.getId());
+            if(pendingState != null){
+                isLike = pendingState;
+            }
+        }
+        return new CommentResponse(row.getId(), row.getContent(), row.getCreatedAt(), us, isLike, countLike,
+                replyCounts.getOrDefault(row.getId(), 0), new ArrayList<>());
+    }
+
+    private int countSubtree(CommentEntity commentEntity) {
+        int count = 1;
+        if(commentEntity.getChildren() != null){
+            for(CommentEntity child : commentEntity.getChildren()){
+                count += countSubtree(child);
+            }
+        }
+        return count;
+    }
+}
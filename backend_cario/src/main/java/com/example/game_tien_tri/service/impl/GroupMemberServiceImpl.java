@@ -1,54 +1,94 @@
 package com.example.game_tien_tri.service.impl;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import com.example.game_tien_tri.cache.GroupRoleCache;
 import com.example.game_tien_tri.service.GroupMemberService;
 import com.example.game_tien_tri.repository.GroupMemberRepository;
+import com.example.game_tien_tri.repository.GroupRepository;
+import com.example.game_tien_tri.repository.UserRepository;
 import com.example.game_tien_tri.utils.ExtractUserUtils;
 import com.example.game_tien_tri.convert.GroupMemberConvert;
+import com.example.game_tien_tri.model.request.GroupMemberBulkRequest;
+import com.example.game_tien_tri.model.request.GroupMemberRequest;
+import com.example.game_tien_tri.model.response.GroupMemberBulkResult;
+import com.example.game_tien_tri.model.response.GroupMemberPageResponse;
 import com.example.game_tien_tri.model.response.GroupMemberResponse;
+import com.example.game_tien_tri.entity.GroupEntity;
 import com.example.game_tien_tri.entity.UserEntity;
-import com.example.game_tien_tri.entity.GroupMemberEntity;
+import com.example.game_tien_tri.model.dto.GroupMemberRowDTO;
 import com.example.game_tien_tri.model.dto.UserGroupMember;
+import com.example.game_tien_tri.utils.CursorUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class GroupMemberServiceImpl implements GroupMemberService {
+    private static final Set<String> GROUP_ROLES = Set.of("admin", "moderator", "member");
+    private static final Set<String> BULK_ROLES = Set.of("moderator", "member");
+
     private final GroupMemberRepository groupMemberRepository;
-    private final GroupMemberConvert groupMemberConvert;
+    private final GroupRepository groupRepository;
     private final ExtractUserUtils extractUserUtils;
+    private final GroupRoleCache groupRoleCache;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${group-member.bulk-max-users:1000}")
+    private int bulkMaxUsers;
+
     @Override
+    @Transactional
     public void joinGroup(Integer groupId, HttpServletRequest request) {
         UserEntity currentUser = extractUserUtils.extract(request);
-        boolean isJoin = groupMemberRepository.existsByGroupIdAndUserId(groupId, currentUser.getId());
-        if(!isJoin) {
-            GroupMemberEntity groupMemberEntity = groupMemberConvert.toGroupMemberEntity(groupId, currentUser.getId());
-            groupMemberEntity.setRole("member");
-            groupMemberRepository.save(groupMemberEntity);
+        if(!groupRoleCache.isMember(groupId, currentUser.getId())) {
+            GroupEntity group = groupRepository.findById(groupId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Group not found"));
+            // The unique (group_id, user_id) key turns a racing second join into a no-op,
+            // so member_count only moves when a row was actually written.
+            if(groupMemberRepository.insertMember(groupId, currentUser.getId(), "member",
+                    GroupMemberConvert.initialStatus(group)) > 0){
+                groupRepository.updateMemberCount(groupId, 1);
+            }
+            groupRoleCache.evict(groupId, currentUser.getId());
         }
     }
 
     @Override
+    @Transactional
     public void updateRole(Integer groupId, Integer userId, String role, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
+        if(role == null || !GROUP_ROLES.contains(role)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
         try{
-            GroupMemberEntity grm1 = groupMemberRepository.findByGroupIdAndUserId(groupId, userId).orElse(null);
-            if(grm1 != null) {
+            String targetRole = groupRoleCache.getRole(groupId, userId);
+            if(targetRole == null) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
             }
-            GroupMemberEntity grm2 = groupMemberRepository.findByGroupIdAndUserId(groupId, user.getId()).orElse(null);
-            if(grm2 != null) {
+            String callerRole = groupRoleCache.getRole(groupId, user.getId());
+            if(callerRole == null) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
             }
-            if(grm2.getRole().equals("admin") && (!grm1.getRole().equals("admin"))) {
-                grm1.setRole(role);
+            if(callerRole.equals("admin") && (!targetRole.equals("admin"))) {
+                groupMemberRepository.updateRole(groupId, userId, role);
+                groupRoleCache.evict(groupId, userId);
             }
             else{
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized update role");
@@ -60,22 +100,23 @@ public class GroupMemberServiceImpl implements GroupMemberService {
 
 
     @Override
+    @Transactional
     public void deleteGroup(Integer groupId, Integer userId, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
         try{
-            GroupMemberEntity grm1 = groupMemberRepository.findByGroupIdAndUserId(groupId, userId).orElse(null);
-            if(grm1 != null) {
+            String targetRole = groupRoleCache.getRole(groupId, userId);
+            if(targetRole == null) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
             }
-            GroupMemberEntity grm2 = groupMemberRepository.findByGroupIdAndUserId(groupId, user.getId()).orElse(null);
-            if(grm2 != null) {
+            String callerRole = groupRoleCache.getRole(groupId, user.getId());
+            if(callerRole == null) {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Not found");
             }
-            if(grm2.getRole().equals("admin") && (!grm1.getRole().equals("admin"))) {
-                groupMemberRepository.delete(grm1);
-            }
-            else if(grm2.getRole().equals("moderator") && (grm1.getRole().equals("member"))) {
-                groupMemberRepository.delete(grm1);
+            if((callerRole.equals("admin") && (!targetRole.equals("admin")))
+                    || (callerRole.equals("moderator") && (targetRole.equals("member")))) {
+                int deleted = groupMemberRepository.deleteMember(groupId, userId);
+                groupRepository.updateMemberCount(groupId, -deleted);
+                groupRoleCache.evict(groupId, userId);
             }
             else{
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized delete user");
@@ -86,27 +127,185 @@ public class GroupMemberServiceImpl implements GroupMemberService {
     }
 
     @Override
-    public List<GroupMemberResponse> getGroupMembers(Integer groupId, HttpServletRequest request) {
+    public GroupMemberPageResponse getGroupMembers(GroupMemberRequest groupMemberRequest, HttpServletRequest request) {
         UserEntity currentUser = extractUserUtils.extract(request);
-        GroupMemberEntity grm1 = groupMemberRepository.findByGroupIdAndUserId(groupId, currentUser.getId()).orElse(null);
-        if(grm1 == null || !grm1.getRole().equals("admin")) {
+        if(!"admin".equals(groupRoleCache.getRole(groupMemberRequest.getGroupId(), currentUser.getId()))) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized view group member");
         }
+        int limit = CursorUtils.pageSize(groupMemberRequest.getLimit());
+        int afterId = groupMemberRequest.getCursor() == null || groupMemberRequest.getCursor().equals("")
+                ? 0 : (int) CursorUtils.decode(groupMemberRequest.getCursor(), 1)[0];
         try{
-            List<GroupMemberEntity> list = groupMemberRepository.findByGroupId(groupId);
+            List<GroupMemberRowDTO> rows = groupMemberRepository.findMemberPage(groupMemberRequest.getGroupId(), afterId,
+                    groupMemberRequest.getRole(), groupMemberRequest.getStatus(), PageRequest.of(0, limit + 1));
+            String nextCursor = null;
+            if(rows.size() > limit){
+                rows = rows.subList(0, limit);
+                nextCursor = CursorUtils.encode(rows.get(limit - 1).getId());
+            }
             List<GroupMemberResponse> responseList = new ArrayList<>();
-            for(GroupMemberEntity grm : list) {
-                GroupMemberResponse grmResponse = new GroupMemberResponse();
-                UserEntity user = grm.getUser();
-                UserGroupMember us = new UserGroupMember(user.getId(), user.getUsername(), user.getUrlAvatar());
-                grmResponse.setGroupMember(us);
-                grmResponse.setStatus(grm.getStatus());
-                grmResponse.setJoinAt(grm.getJoinedAt());
-                responseList.add(grmResponse);
-            }
-            return responseList;
+            for(GroupMemberRowDTO row : rows) {
+                UserGroupMember us = new UserGroupMember(row.getUserId(), row.getUsername(), row.getUrlAvatar());
+                responseList.add(new GroupMemberResponse(us, row.getJoinedAt(), row.getStatus(), row.getRole()));
+            }
+            return new GroupMemberPageResponse(responseList, nextCursor);
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
+
+    @Override
+    @Transactional
+    public List<GroupMemberBulkResult> addMembers(GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        UserEntity user = extractUserUtils.extract(request);
+        List<Integer> userIds = validateBulk(bulkRequest);
+        requireRole(bulkRequest.getGroupId(), user.getId(), "admin");
+        GroupEntity group = groupRepository.findById(bulkRequest.getGroupId())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Group not found"));
+        int status = GroupMemberConvert.initialStatus(group);
+        Map<Integer, String> roles = findRoles(bulkRequest.getGroupId(), userIds);
+        Set<Integer> existing = new HashSet<>(userRepository.findExistingIds(userIds));
+        List<GroupMemberBulkResult> results = new ArrayList<>();
+        List<GroupMemberBulkResult> pending = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for(Integer userId : userIds){
+            if(!existing.contains(userId)){
+                results.add(new GroupMemberBulkResult(userId, "user_not_found"));
+            }
+            else if(roles.containsKey(userId)){
+                results.add(new GroupMemberBulkResult(userId, "already_member"));
+            }
+            else{
+                inserts.add(new Object[]{bulkRequest.getGroupId(), userId, status});
+                GroupMemberBulkResult result = new GroupMemberBulkResult(userId, "added");
+                pending.add(result);
+                results.add(result);
+            }
+        }
+        // A user who joined between the role lookup and the insert is skipped by the unique key, not counted twice.
+        int[] counts = jdbcTemplate.batchUpdate("insert ignore into group_members (group_id, user_id, role, status, joined_at) " +
+                "values (?, ?, 'member', ?, now())", inserts);
+        int added = 0;
+        for(int i = 0; i < counts.length; i++){
+            if(counts[i] == 0){
+                pending.get(i).setResult("already_member");
+            }
+            else if(counts[i] != Statement.SUCCESS_NO_INFO){
+                added++;
+            }
+        }
+        if(hasNoInfo(counts)){
+            groupRepository.recountMembers(bulkRequest.getGroupId(), true);
+        }
+        else if(added > 0){
+            groupRepository.updateMemberCount(bulkRequest.getGroupId(), added);
+        }
+        inserts.forEach(args -> groupRoleCache.evict(bulkRequest.getGroupId(), (Integer) args[1]));
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<GroupMemberBulkResult> removeMembers(GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        UserEntity user = extractUserUtils.extract(request);
+        List<Integer> userIds = validateBulk(bulkRequest);
+        String callerRole = groupRoleCache.getRole(bulkRequest.getGroupId(), user.getId());
+        if(!"admin".equals(callerRole) && !"moderator".equals(callerRole)){
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized delete user");
+        }
+        Map<Integer, String> roles = findRoles(bulkRequest.getGroupId(), userIds);
+        List<GroupMemberBulkResult> results = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for(Integer userId : userIds){
+            String targetRole = roles.get(userId);
+            if(targetRole == null){
+                results.add(new GroupMemberBulkResult(userId, "not_member"));
+            }
+            else if((callerRole.equals("admin") && !targetRole.equals("admin"))
+                    || (callerRole.equals("moderator") && targetRole.equals("member"))){
+                deletes.add(new Object[]{bulkRequest.getGroupId(), userId});
+                results.add(new GroupMemberBulkResult(userId, "removed"));
+            }
+            else{
+                results.add(new GroupMemberBulkResult(userId, "forbidden"));
+            }
+        }
+        int[] counts = jdbcTemplate.batchUpdate("delete from group_members where group_id = ? and user_id = ?", deletes);
+        int deleted = 0;
+        for(int count : counts){
+            deleted += Math.max(count, 0);
+        }
+        if(hasNoInfo(counts)){
+            groupRepository.recountMembers(bulkRequest.getGroupId(), false);
+        }
+        else if(deleted > 0){
+            groupRepository.updateMemberCount(bulkRequest.getGroupId(), -deleted);
+        }
+        deletes.forEach(args -> groupRoleCache.evict(bulkRequest.getGroupId(), (Integer) args[1]));
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<GroupMemberBulkResult> updateRoles(GroupMemberBulkRequest bulkRequest, HttpServletRequest request) {
+        UserEntity user = extractUserUtils.extract(request);
+        List<Integer> userIds = validateBulk(bulkRequest);
+        // Promoting to admin stays a one-at-a-time action through updateRole.
+        if(bulkRequest.getRole() == null || !BULK_ROLES.contains(bulkRequest.getRole())){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        requireRole(bulkRequest.getGroupId(), user.getId(), "admin");
+        Map<Integer, String> roles = findRoles(bulkRequest.getGroupId(), userIds);
+        List<GroupMemberBulkResult> results = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for(Integer userId : userIds){
+            String targetRole = roles.get(userId);
+            if(targetRole == null){
+                results.add(new GroupMemberBulkResult(userId, "not_member"));
+            }
+            else if(targetRole.equals("admin")){
+                results.add(new GroupMemberBulkResult(userId, "forbidden"));
+            }
+            else{
+                updates.add(new Object[]{bulkRequest.getRole(), bulkRequest.getGroupId(), userId});
+                results.add(new GroupMemberBulkResult(userId, "updated"));
+            }
+        }
+        jdbcTemplate.batchUpdate("update group_members set role = ? where group_id = ? and user_id = ?", updates);
+        updates.forEach(args -> groupRoleCache.evict(bulkRequest.getGroupId(), (Integer) args[2]));
+        return results;
+    }
+
+    // With rewriteBatchedStatements the driver folds a batch into one statement and may report SUCCESS_NO_INFO per row.
+    // Adjusting by an unknown count would drift, so member_count is recounted for the group instead.
+    private static boolean hasNoInfo(int[] counts) {
+        for(int count : counts){
+            if(count == Statement.SUCCESS_NO_INFO){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Integer> validateBulk(GroupMemberBulkRequest bulkRequest) {
+        if(bulkRequest.getGroupId() == null || bulkRequest.getUserIds() == null || bulkRequest.getUserIds().isEmpty()
+                || bulkRequest.getUserIds().size() > bulkMaxUsers){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        return bulkRequest.getUserIds().stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private void requireRole(Integer groupId, Integer userId, String role) {
+        if(!role.equals(groupRoleCache.getRole(groupId, userId))){
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to manage members");
+        }
+    }
+
+    private Map<Integer, String> findRoles(Integer groupId, List<Integer> userIds) {
+        Map<Integer, String> roles = new HashMap<>();
+        for(Object[] row : groupMemberRepository.findRolesByUserIds(groupId, userIds)){
+            roles.putIfAbsent((Integer) row[0], (String) row[1]);
+        }
+        return roles;
+    }
 }
@@ -1,22 +1,30 @@
 package com.example.game_tien_tri.service.impl;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import com.example.game_tien_tri.cache.GroupRoleCache;
 import com.example.game_tien_tri.service.GroupService;
 import com.example.game_tien_tri.repository.GroupRepository;
 import com.example.game_tien_tri.convert.GroupConvert;
 import com.example.game_tien_tri.repository.GroupMemberRepository;
 import com.example.game_tien_tri.repository.UserRepository;
+import com.example.game_tien_tri.search.GroupSearchIndex;
+import com.example.game_tien_tri.utils.CursorUtils;
 import com.example.game_tien_tri.utils.ExtractUserUtils;
 import com.example.game_tien_tri.model.dto.GroupDTO;
+import com.example.game_tien_tri.model.request.GroupRequest;
+import com.example.game_tien_tri.model.response.GroupPageResponse;
 import com.example.game_tien_tri.model.response.GroupResponse;
 import com.example.game_tien_tri.entity.UserEntity;
 import com.example.game_tien_tri.entity.GroupEntity;
 import com.example.game_tien_tri.entity.GroupMemberEntity;
+import com.example.game_tien_tri.utils.SiteRoles;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,12 +36,16 @@ public class GroupServiceImpl implements GroupService {
     private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
     private final ExtractUserUtils extractUserUtils;
+    private final GroupSearchIndex groupSearchIndex;
+    private final GroupRoleCache groupRoleCache;
     @Override
+    @Transactional
     public GroupDTO createGroup(GroupDTO groupDTO, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
         try{
             groupDTO.setId(null);
             GroupEntity groupEntity = groupConvert.toGroupEntity(groupDTO);
+            groupEntity.setMemberCount(1);
             GroupEntity saved = groupRepository.save(groupEntity);
             GroupMemberEntity groupMemberEntity = new GroupMemberEntity();
             groupMemberEntity.setGroup(saved);
@@ -41,7 +53,9 @@ public class GroupServiceImpl implements GroupService {
             groupMemberEntity.setRole("admin");
             groupMemberEntity.setUser(user);
             groupMemberRepository.save(groupMemberEntity);
-            return new GroupDTO(saved.getId(), saved.getName(), saved.getDescription(), saved.getIsPrivate());
+            GroupDTO result = new GroupDTO(saved.getId(), saved.getName(), saved.getDescription(), saved.getIsPrivate());
+            groupSearchIndex.put(result);
+            return result;
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -55,13 +69,14 @@ public class GroupServiceImpl implements GroupService {
                     HttpStatus.NOT_FOUND,
                     "Group not found"
             ));
-            GroupMemberEntity groupMemberEntity = groupMemberRepository.findByGroupIdAndUserId(groupEntity.getId(), user.getId()).orElse(null);
-            if(groupMemberEntity == null && !groupMemberEntity.getRole().equals("admin")){
+            if(!"admin".equals(groupRoleCache.getRole(groupEntity.getId(), user.getId()))){
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to delete this group");
             }
             groupEntity.setIsPrivate(status);
             groupRepository.save(groupEntity);
-            return new GroupDTO(groupEntity.getId(), groupEntity.getName(), groupEntity.getDescription(), groupEntity.getIsPrivate());
+            GroupDTO result = new GroupDTO(groupEntity.getId(), groupEntity.getName(), groupEntity.getDescription(), groupEntity.getIsPrivate());
+            groupSearchIndex.put(result);
+            return result;
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -70,62 +85,72 @@ public class GroupServiceImpl implements GroupService {
     @Override
     public void deleteGroup(Integer id, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
-        GroupMemberEntity groupMemberEntity = groupMemberRepository.findByGroupIdAndUserId(id, user.getId()).orElse(null);
-        if(groupMemberEntity == null){
+        String role = groupRoleCache.getRole(id, user.getId());
+        if(role == null){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Group not found");
         }
-        if(!user.getRole().equals("admin") && !groupMemberEntity.getRole().equals("admin")){
+        if(!SiteRoles.isAdmin(user.getRole()) && !role.equals("admin")){
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to delete this group");
         }
         try{
             groupRepository.deleteById(id);
+            groupSearchIndex.remove(id);
+            groupRoleCache.evictGroup(id);
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
     @Override
-    public List<GroupResponse> getByUser(HttpServletRequest request) {
+    public GroupPageResponse getByUser(GroupRequest groupRequest, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
-        try{
-            List<GroupMemberEntity> list = groupMemberRepository.findByUserId(user.getId());
-            List<GroupResponse> result = new ArrayList<>();
-            for(GroupMemberEntity groupMemberEntity : list){
-                GroupEntity groupEntity = groupRepository.findById(groupMemberEntity.getGroup().getId()).orElse(null);
-                GroupResponse groupResponse = groupConvert.toGroupResponse(groupEntity);
-                Integer countUserJoin = groupMemberRepository.countByGroupId(groupEntity.getId());
-                groupResponse.setCountUserJoin(countUserJoin);
-                groupResponse.setUserRole(groupMemberEntity.getRole());
-                result.add(groupResponse);
-            }
-            return result;
-        }catch(Exception e){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
-        }
+        return getGroupPage(null, user.getId(), true, groupRequest);
     }
 
     @Override
-    public List<GroupResponse> getAll(String name, HttpServletRequest request) {
+    public GroupPageResponse getAll(GroupRequest groupRequest, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
-        try{
-            List<GroupResponse> result = new ArrayList<>();
-            List<GroupEntity> list = groupRepository.findByNameContaining(name);
-            for(GroupEntity groupEntity : list){
-                GroupResponse groupResponse = groupConvert.toGroupResponse(groupEntity);
-                GroupMemberEntity grmEntity = groupMemberRepository.findByGroupIdAndUserId(groupEntity.getId(), user.getId()).orElse(null);
-                if(grmEntity == null){
-                    groupResponse.setUserRole(null);
-                }
-                else{
-                    groupResponse.setUserRole(grmEntity.getRole());
-                }
-                Integer countUserJoin = groupMemberRepository.countByGroupId(groupEntity.getId());
-                groupResponse.setCountUserJoin(countUserJoin);
-                result.add(groupResponse);
+        return getGroupPage(groupRequest.getName(), user.getId(), false, groupRequest);
+    }
+
+    @Override
+    public List<GroupDTO> suggest(String name, Integer limit, HttpServletRequest request) {
+        extractUserUtils.extract(request);
+        int size = CursorUtils.pageSize(limit);
+        if(groupSearchIndex.isReady()){
+            return groupSearchIndex.suggest(name, size);
+        }
+        return groupRepository.getGroups(name, null, null, null, false, null, size).stream()
+                .limit(size)
+                .map(group -> new GroupDTO(group.getId(), group.getName(), group.getDescription(), group.getIsPrivate()))
+                .toList();
+    }
+
+    private GroupPageResponse getGroupPage(String name, Integer userId, boolean joinedOnly, GroupRequest groupRequest) {
+        int limit = CursorUtils.pageSize(groupRequest.getLimit());
+        List<Integer> nameMatchIds = null;
+        if(name != null && !name.isBlank() && groupSearchIndex.isReady()){
+            nameMatchIds = groupSearchIndex.matchIds(name);
+            if(nameMatchIds.isEmpty()){
+                return new GroupPageResponse(new ArrayList<>(), null);
+            }
+        }
+        List<GroupResponse> groups = groupRepository.getGroups(name, nameMatchIds, groupRequest.getSort(), userId, joinedOnly,
+                groupRequest.getCursor(), limit);
+        String nextCursor = null;
+        if(groups.size() > limit){
+            groups = groups.subList(0, limit);
+            GroupResponse last = groups.get(limit - 1);
+            if("member".equals(groupRequest.getSort())){
+                nextCursor = CursorUtils.encode(last.getCountUserJoin(), last.getId());
+            }
+            else if("activity".equals(groupRequest.getSort())){
+                nextCursor = CursorUtils.encode(Timestamp.valueOf(last.getLastActivityAt()).getTime(), last.getId());
+            }
+            else{
+                nextCursor = CursorUtils.encode(last.getId());
             }
-            return result;
-        }catch(Exception e){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
+        return new GroupPageResponse(new ArrayList<>(groups), nextCursor);
     }
 }
@@ -1,16 +1,19 @@
 package com.example.game_tien_tri.service.impl;
 
-import com.example.game_tien_tri.entity.CommentEntity;
-import com.example.game_tien_tri.entity.LikeEntity;
-import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.buffer.LikeWriteBuffer;
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import com.example.game_tien_tri.counter.HotCounterService;
 import com.example.game_tien_tri.entity.UserEntity;
 import com.example.game_tien_tri.model.dto.LikeDTO;
+import com.example.game_tien_tri.model.response.LikeResponse;
 import com.example.game_tien_tri.repository.CommentRepository;
 import com.example.game_tien_tri.repository.LikeRepository;
 import com.example.game_tien_tri.repository.PostRepository;
 import com.example.game_tien_tri.service.LikeService;
 import com.example.game_tien_tri.utils.ExtractUserUtils;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -23,39 +26,96 @@ public class LikeServiceImpl implements LikeService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final ExtractUserUtils extractUserUtils;
+    private final PostFeedCache postFeedCache;
+    private final CommentTreeCache commentTreeCache;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final HotCounterService hotCounterService;
     @Override
-    public void like(LikeDTO likeDTO, HttpServletRequest request) {
+    @Transactional
+    public LikeResponse like(LikeDTO likeDTO, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
-        try{
-            if(likeDTO.getCommentId() == null) {
-                if(likeRepository.existsByUserIdAndPostId(user.getId(), likeDTO.getPostId())) {
-                    LikeEntity likeEntity = likeRepository.findByUserIdAndPostId(user.getId(), likeDTO.getPostId());
-                    likeRepository.delete(likeEntity);
-                }
-                else{
-                    LikeEntity likeEntity = new LikeEntity();
-                    PostEntity postEntity = postRepository.findById(likeDTO.getPostId()).orElse(null);
-                    likeEntity.setUser(user);
-                    likeEntity.setPost(postEntity);
-                    likeRepository.save(likeEntity);
-                }
+        if(likeDTO.getCommentId() == null && likeDTO.getPostId() == null){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        if(likeDTO.getCommentId() == null) {
+            return togglePostLike(user.getId(), likeDTO.getPostId());
+        }
+        return toggleCommentLike(user.getId(), likeDTO.getCommentId());
+    }
+
+    // The unique (user_id, post_id) key makes the delete-or-insert pair safe against double clicks:
+    // a racing insert becomes a no-op and the counter only moves by rows actually written.
+    private LikeResponse togglePostLike(Integer userId, Integer postId) {
+        if(likeWriteBuffer.isEnabled()){
+            Integer storedCount = postRepository.findLikeCount(postId);
+            if(storedCount == null){
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post Not Found");
             }
-            else{
-                if(likeRepository.existsByUserIdAndCommentId(user.getId(), likeDTO.getCommentId())) {
-                    LikeEntity likeEntity = likeRepository.findByUserIdAndCommentId(user.getId(), likeDTO.getCommentId());
-                    likeRepository.delete(likeEntity);
-                }
-                else{
-                    LikeEntity likeEntity = new LikeEntity();
-                    CommentEntity commentEntity = commentRepository.findById(likeDTO.getCommentId()).orElse(null);
-                    likeEntity.setUser(user);
-                    likeEntity.setComment(commentEntity);
-                    likeRepository.save(likeEntity);
-                }
+            boolean liked = likeWriteBuffer.togglePost(userId, postId,
+                    () -> likeRepository.existsByUserIdAndPostId(userId, postId));
+            return new LikeResponse(liked, storedCount + likeWriteBuffer.pendingPostDelta(postId));
+        }
+        boolean liked;
+        int deleted = likeRepository.deletePostLike(userId, postId);
+        if(deleted > 0){
+            liked = false;
+            addPostLikes(postId, -deleted);
+        }
+        else{
+            liked = true;
+            if(likeRepository.insertPostLike(userId, postId) > 0){
+                addPostLikes(postId, 1);
             }
-        }catch(Exception e){
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
+        Integer countLike = postRepository.findLikeCount(postId);
+        if(countLike == null){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post Not Found");
+        }
+        return new LikeResponse(liked, countLike + (int) hotCounterService.pendingPostLikes(postId));
+    }
+
+    private LikeResponse toggleCommentLike(Integer userId, Integer commentId) {
+        if(likeWriteBuffer.isEnabled()){
+            Integer storedCount = commentRepository.findLikeCount(commentId);
+            if(storedCount == null){
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found");
+            }
+            boolean liked = likeWriteBuffer.toggleComment(userId, commentId,
+                    () -> likeRepository.existsByUserIdAndCommentId(userId, commentId));
+            return new LikeResponse(liked, storedCount + likeWriteBuffer.pendingCommentDelta(commentId));
+        }
+        boolean liked;
+        int deleted = likeRepository.deleteCommentLike(userId, commentId);
+        if(deleted > 0){
+            liked = false;
+            addCommentLikes(commentId, -deleted);
+        }
+        else{
+            liked = true;
+            if(likeRepository.insertCommentLike(userId, commentId) > 0){
+                addCommentLikes(commentId, 1);
+            }
+        }
+        Integer countLike = commentRepository.findLikeCount(commentId);
+        if(countLike == null){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Comment not found");
+        }
+        return new LikeResponse(liked, countLike + (int) hotCounterService.pendingCommentLikes(commentId));
     }
-}
 
+    // Hot posts skip the row update and cache eviction; feeds add the pending delta until it is folded.
+    private void addPostLikes(Integer postId, int delta) {
+        if(!hotCounterService.addPostLikes(postId, delta)){
+            postRepository.updateLikeCount(postId, delta);
+            postFeedCache.evictPost(postId);
+            postFeedCache.evictLikeSortedPages();
+        }
+    }
+
+    private void addCommentLikes(Integer commentId, int delta) {
+        if(!hotCounterService.addCommentLikes(commentId, delta)){
+            commentRepository.updateLikeCount(commentId, delta);
+            commentTreeCache.evictComment(commentId);
+        }
+    }
+}
@@ -1,30 +1,44 @@
 package com.example.game_tien_tri.service.impl;
 
+import com.example.game_tien_tri.buffer.LikeWriteBuffer;
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.GroupRoleCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import com.example.game_tien_tri.counter.HotCounterService;
 import com.example.game_tien_tri.convert.PostConvert;
 import com.example.game_tien_tri.entity.GroupEntity;
-import com.example.game_tien_tri.entity.GroupMemberEntity;
 import com.example.game_tien_tri.entity.PostEntity;
 import com.example.game_tien_tri.entity.UserEntity;
 import com.example.game_tien_tri.model.dto.GroupOfPostDTO;
+import com.example.game_tien_tri.model.dto.PostCursorDTO;
 import com.example.game_tien_tri.model.dto.PostDTO;
 import com.example.game_tien_tri.model.dto.UserOfPost;
 import com.example.game_tien_tri.model.request.PostGroupRequest;
 import com.example.game_tien_tri.model.request.PostManagerResquest;
 import com.example.game_tien_tri.model.response.PostManagerResponse;
+import com.example.game_tien_tri.model.response.PostPageResponse;
 import com.example.game_tien_tri.model.request.PostRequest;
 import com.example.game_tien_tri.model.response.PostResponse;
 import com.example.game_tien_tri.repository.*;
+import com.example.game_tien_tri.search.PostSearchIndex;
 import com.example.game_tien_tri.service.PostService;
+import com.example.game_tien_tri.utils.CursorUtils;
 import com.example.game_tien_tri.utils.ExtractUserUtils;
+import com.example.game_tien_tri.utils.SiteRoles;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -33,12 +47,17 @@ public class PostServiceImpl implements PostService {
     private final PostConvert postConvert;
     private final ExtractUserUtils extractUserUtils;
     private final GroupRepository groupRepository;
-    private final GroupMemberRepository groupMemberRepository;
-    private final LikeRepository likeRepository;
-    private final CommentRepository commentRepository;
     private final UserRepository userRepository;
+    private final PostSearchIndex postSearchIndex;
+    private final PostFeedCache postFeedCache;
+    private final CommentTreeCache commentTreeCache;
+    private final GroupRoleCache groupRoleCache;
+    private final LikeRepository likeRepository;
+    private final LikeWriteBuffer likeWriteBuffer;
+    private final HotCounterService hotCounterService;
 
     @Override
+    @Transactional
     public PostDTO createPost(PostDTO postDTO, HttpServletRequest httpRequest) {
         try{
             UserEntity user = extractUserUtils.extract(httpRequest);
@@ -47,7 +66,13 @@ public class PostServiceImpl implements PostService {
             PostEntity postEntity = postConvert.toPostEntity(postDTO);
             postEntity.setUser(user);
             PostEntity post = postRepository.save(postEntity);
-            return new PostDTO(post.getId(), post.getTitle(), post.getContent(), post.getType(), post.getStatus(), postDTO.getGroupId());
+            PostDTO result = new PostDTO(post.getId(), post.getTitle(), post.getContent(), post.getType(), post.getStatus(), postDTO.getGroupId());
+            if(post.getGroup() != null){
+                groupRepository.updatePostCount(post.getGroup().getId(), 1);
+            }
+            postSearchIndex.put(result);
+            postFeedCache.evictPages(PostFeedCache.scopeOf(result.getType(), result.getGroupId()));
+            return result;
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
         }
@@ -60,26 +85,38 @@ public class PostServiceImpl implements PostService {
                         HttpStatus.NOT_FOUND,
                         "Post Not Found"
                 ));
-        if(!user.getRole().equals("admin") && !Objects.equals(user.getId(), post.getUser().getId())){
+        if(!SiteRoles.isAdmin(user.getRole()) && !Objects.equals(user.getId(), post.getUser().getId())){
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to update this post");
         }
         post.setTitle(postDTO.getTitle());
         post.setContent(postDTO.getContent());
         PostEntity saved = postRepository.save(post);
-        return new PostDTO(saved.getId(), saved.getTitle(), saved.getContent(), saved.getType(), saved.getStatus(), postDTO.getGroupId());
+        PostDTO result = new PostDTO(saved.getId(), saved.getTitle(), saved.getContent(), saved.getType(), saved.getStatus(), postDTO.getGroupId());
+        postSearchIndex.put(result);
+        postFeedCache.evictPost(saved.getId());
+        postFeedCache.evictFilteredPages(scopeOf(saved));
+        return result;
     }
 
     @Override
+    @Transactional
     public void deletePost(Integer postId, HttpServletRequest httpRequest) {
         UserEntity user = extractUserUtils.extract(httpRequest);
         if(!postRepository.existsById(postId)){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post Not Found");
         }
         PostEntity post = postRepository.findById(postId).get();
-        if(!user.getRole().equals("admin") && !Objects.equals(user.getId(), post.getUser().getId())){
+        if(!SiteRoles.isAdmin(user.getRole()) && !Objects.equals(user.getId(), post.getUser().getId())){
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to delete this post");
         }
         postRepository.deleteById(postId);
+        if(post.getGroup() != null){
+            groupRepository.updatePostCount(post.getGroup().getId(), -1);
+        }
+        postSearchIndex.remove(postId);
+        postFeedCache.evictPost(postId);
+        postFeedCache.evictPages(scopeOf(post));
+        commentTreeCache.evictPost(postId);
     }
 
     @Override
@@ -92,24 +129,32 @@ public class PostServiceImpl implements PostService {
                             "Post Not Found"
                     ));
             if(postEntity.getType().equals("forum")){
-                if(user.getRole().equals("admin") || user.getRole().equals("moderator")){
+                if(SiteRoles.isModerator(user.getRole())){
                     postEntity.setStatus(status);
                     PostEntity saved = postRepository.save(postEntity);
-                    return new PostDTO(id, saved.getTitle(), saved.getContent(), postEntity.getType(), postEntity.getStatus(), postEntity.getGroup() == null ? null : postEntity.getGroup().getId());
+                    PostDTO result = new PostDTO(id, saved.getTitle(), saved.getContent(), postEntity.getType(), postEntity.getStatus(), postEntity.getGroup() == null ? null : postEntity.getGroup().getId());
+                    postSearchIndex.put(result);
+                    postFeedCache.evictPost(id);
+                    postFeedCache.evictPages(scopeOf(postEntity));
+                    return result;
                 }
                 else{
                     throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to update this post");
                 }
             }
             else{
-                GroupMemberEntity groupMemberEntity = groupMemberRepository.findByGroupIdAndUserId(postEntity.getGroup().getId(), user.getId()).orElse(null);
-                if(groupMemberEntity == null || groupMemberEntity.getRole().equals("member")){
+                String role = groupRoleCache.getRole(postEntity.getGroup().getId(), user.getId());
+                if(role == null || role.equals("member")){
                     throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to update this post");
                 }
                 else{
                     postEntity.setStatus(status);
                     postRepository.save(postEntity);
-                    return new PostDTO(id, postEntity.getTitle(), postEntity.getContent(), postEntity.getType(), postEntity.getStatus(), postEntity.getGroup().getId());
+                    PostDTO result = new PostDTO(id, postEntity.getTitle(), postEntity.getContent(), postEntity.getType(), postEntity.getStatus(), postEntity.getGroup().getId());
+                    postSearchIndex.put(result);
+                    postFeedCache.evictPost(id);
+                    postFeedCache.evictPages(scopeOf(postEntity));
+                    return result;
                 }
             }
 
@@ -120,54 +165,49 @@ public class PostServiceImpl implements PostService {
     }
 
     @Override
-    public List<PostResponse> getPost(PostRequest postRequest, HttpServletRequest httpRequest) {
+    public PostPageResponse getPost(PostRequest postRequest, HttpServletRequest httpRequest) {
         UserEntity user = extractUserUtils.extract(httpRequest);
         try{
-            List<PostResponse> result = new ArrayList<>();
-            List<PostEntity> list = postRepository.getAllPosts(postRequest);
-            for(PostEntity postEntity : list){
-                PostResponse postResponse = postConvert.toPostResponse(postEntity);
-                UserEntity userPost = postEntity.getUser();
-                UserOfPost us = new UserOfPost();
-                us.setUsername(userPost.getUsername());
-                us.setUrlAvatar(userPost.getUrlAvatar());
-                postResponse.setUserOfPost(us);
-                Integer countLike = likeRepository.countByPostId(postEntity.getId());
-                postResponse.setCountLike(countLike);
-                boolean isLike = likeRepository.existsByUserIdAndPostId(user.getId(), postEntity.getId());
-                postResponse.setUserIsLike(isLike);
-                Integer countComment = commentRepository.countByPostId(postEntity.getId());
-                postResponse.setCountComment(countComment);
-                result.add(postResponse);
+            postRequest.setLimit(CursorUtils.pageSize(postRequest.getLimit()));
+            String title = postRequest.getTitle() == null || postRequest.getTitle().isBlank() ? null : postRequest.getTitle();
+            String key = PostFeedCache.pageKey("forum", postRequest.getSort(), postRequest.getTypeSort(),
+                    title, postRequest.getCursor(), postRequest.getLimit());
+            PostFeedCache.Page page = postFeedCache.getPage(key);
+            if(page == null){
+                boolean useIndex = title != null && postSearchIndex.isReady();
+                boolean sorted = !isBlank(postRequest.getSort()) || !isBlank(postRequest.getTypeSort());
+                if(useIndex && !sorted){
+                    List<Integer> ranked = postSearchIndex.search(title, "forum", 1);
+                    page = toSearchPage(ranked, postRequest.getCursor(), postRequest.getLimit());
+                }
+                else{
+                    List<Integer> titleMatchIds = useIndex ? postSearchIndex.matchIds(title, "forum", 1) : null;
+                    List<PostCursorDTO> keys = postRepository.getAllPosts(postRequest, titleMatchIds);
+                    page = toPostPage("forum", keys, postRequest.getLimit(), "like".equals(postRequest.getSort()), title != null);
+                }
+                postFeedCache.putPage(key, page);
             }
-            return result;
+            return new PostPageResponse(hydrate(page.getIds(), user.getId()), page.getNextCursor());
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
     @Override
-    public List<PostResponse> getByGoup(PostGroupRequest postGroupRequest, HttpServletRequest httpRequest) {
+    public PostPageResponse getByGoup(PostGroupRequest postGroupRequest, HttpServletRequest httpRequest) {
         UserEntity user = extractUserUtils.extract(httpRequest);
         try{
-            List<PostResponse> result = new ArrayList<>();
-            List<PostEntity> list = postRepository.getPostsGroup(postGroupRequest);
-            for(PostEntity postEntity : list){
-                PostResponse postResponse = postConvert.toPostResponse(postEntity);
-                UserEntity userPost = postEntity.getUser();
-                UserOfPost us = new UserOfPost();
-                us.setUsername(userPost.getUsername());
-                us.setUrlAvatar(userPost.getUrlAvatar());
-                postResponse.setUserOfPost(us);
-                Integer countLike = likeRepository.countByPostId(postEntity.getId());
-                postResponse.setCountLike(countLike);
-                boolean isLike = likeRepository.existsByUserIdAndPostId(user.getId(), postEntity.getId());
-                postResponse.setUserIsLike(isLike);
-                Integer countComment = commentRepository.countByPostId(postEntity.getId());
-                postResponse.setCountComment(countComment);
-                result.add(postResponse);
+            postGroupRequest.setLimit(CursorUtils.pageSize(postGroupRequest.getLimit()));
+            String scope = PostFeedCache.scopeOf("blog", postGroupRequest.getGroupId());
+            String key = PostFeedCache.pageKey(scope, postGroupRequest.getSort(), postGroupRequest.getTypeSort(),
+                    null, postGroupRequest.getCursor(), postGroupRequest.getLimit());
+            PostFeedCache.Page page = postFeedCache.getPage(key);
+            if(page == null){
+                List<PostCursorDTO> keys = postRepository.getPostsGroup(postGroupRequest);
+                page = toPostPage(scope, keys, postGroupRequest.getLimit(), "like".equals(postGroupRequest.getSort()), false);
+                postFeedCache.putPage(key, page);
             }
-            return result;
+            return new PostPageResponse(hydrate(page.getIds(), user.getId()), page.getNextCursor());
         }catch(Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -177,24 +217,8 @@ public class PostServiceImpl implements PostService {
     public List<PostResponse> getByUser(HttpServletRequest httpRequest) {
         UserEntity user = extractUserUtils.extract(httpRequest);
         try{
-            List<PostResponse> result = new ArrayList<>();
-            List<PostEntity> list = postRepository.findByUserId(user.getId());
-            for(PostEntity postEntity : list){
-                PostResponse postResponse = postConvert.toPostResponse(postEntity);
-                UserEntity userPost = postEntity.getUser();
-                UserOfPost us = new UserOfPost();
-                us.setUsername(userPost.getUsername());
-                us.setUrlAvatar(userPost.getUrlAvatar());
-                postResponse.setUserOfPost(us);
-                Integer countLike = likeRepository.countByPostId(postEntity.getId());
-                postResponse.setCountLike(countLike);
-                boolean isLike = likeRepository.existsByUserIdAndPostId(user.getId(), postEntity.getId());
-                postResponse.setUserIsLike(isLike);
-                Integer countComment = commentRepository.countByPostId(postEntity.getId());
-                postResponse.setCountComment(countComment);
-                result.add(postResponse);
-            }
-            return result;
+            List<Integer> ids = postRepository.findIdsByUserId(user.getId());
+            return hydrate(ids, user.getId());
         }catch(Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
@@ -203,12 +227,16 @@ public class PostServiceImpl implements PostService {
     @Override
     public List<PostManagerResponse> getAll(PostManagerResquest postManagerResquest, HttpServletRequest request) {
         UserEntity userEntity = extractUserUtils.extract(request);
-        if(!userEntity.getRole().equals("admin")){
+        if(!SiteRoles.isAdmin(userEntity.getRole())){
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to get this posts");
         }
         try{
             List<PostManagerResponse> result = new ArrayList<>();
-            List<PostEntity> list = postRepository.getAll(postManagerResquest);
+            List<Integer> titleMatchIds = null;
+            if(postManagerResquest.getTitle() != null && !postManagerResquest.getTitle().isBlank() && postSearchIndex.isReady()){
+                titleMatchIds = postSearchIndex.matchIds(postManagerResquest.getTitle(), null, postManagerResquest.getStatus());
+            }
+            List<PostEntity> list = postRepository.getAll(postManagerResquest, titleMatchIds);
             for(PostEntity postEntity : list){
                 PostManagerResponse postManagerResponse = postConvert.postManagerResponse(postEntity);
                 UserEntity user = postEntity.getUser();
@@ -234,11 +262,11 @@ public class PostServiceImpl implements PostService {
     @Override
     public List<PostManagerResponse> getAllByGroup(Integer id, Integer status, HttpServletRequest httpRequest) {
         UserEntity userEntity =  extractUserUtils.extract(httpRequest);
-        GroupMemberEntity groupMemberEntity = groupMemberRepository.findByGroupIdAndUserId(id, userEntity.getId()).orElse(null);
-        if(groupMemberEntity == null){
+        String role = groupRoleCache.getRole(id, userEntity.getId());
+        if(role == null){
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The user does not exist in the group.");
         }
-        else if(!groupMemberEntity.getRole().equals("admin")){
+        else if(!role.equals("admin")){
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to get this posts");
         }
 
@@ -270,23 +298,88 @@ public class PostServiceImpl implements PostService {
     @Override
     public PostResponse getById(Integer id, HttpServletRequest request) {
         UserEntity user = extractUserUtils.extract(request);
+        List<PostResponse> list;
         try{
-            PostEntity postEntity = postRepository.findById(id).get();
-            PostResponse postResponse = postConvert.toPostResponse(postEntity);
-            UserEntity userPost = postEntity.getUser();
-            UserOfPost us = new UserOfPost();
-            us.setUsername(userPost.getUsername());
-            us.setUrlAvatar(userPost.getUrlAvatar());
-            postResponse.setUserOfPost(us);
-            Integer countLike = likeRepository.countByPostId(postEntity.getId());
-            postResponse.setCountLike(countLike);
-            boolean isLike = likeRepository.existsByUserIdAndPostId(user.getId(), postEntity.getId());
-            postResponse.setUserIsLike(isLike);
-            Integer countComment = commentRepository.countByPostId(postEntity.getId());
-            postResponse.setCountComment(countComment);
-            return postResponse;
+            list = hydrate(List.of(id), user.getId());
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
+        if(list.isEmpty()){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post Not Found");
+        }
+        return list.get(0);
+    }
+
+    private List<PostResponse> hydrate(List<Integer> ids, Integer userId) {
+        Map<Integer, PostResponse> cached = postFeedCache.getPosts(ids);
+        Map<Integer, PostResponse> responses = new HashMap<>();
+        List<Integer> missing = ids.stream().filter(id -> !cached.containsKey(id)).toList();
+        Map<Integer, Long> generations = new HashMap<>();
+        missing.forEach(id -> generations.put(id, postFeedCache.generation(id)));
+        for(PostResponse postResponse : postRepository.getPostResponses(missing, userId)){
+            PostResponse fragment = postConvert.copyPostResponse(postResponse);
+            fragment.setUserIsLike(false);
+            postFeedCache.putPost(fragment, generations.get(postResponse.getId()));
+            responses.put(postResponse.getId(), postResponse);
+        }
+        if(!cached.isEmpty()){
+            Set<Integer> liked = new HashSet<>(likeRepository.findLikedPostIds(userId, cached.keySet()));
+            cached.forEach((id, fragment) -> {
+                PostResponse postResponse = postConvert.copyPostResponse(fragment);
+                postResponse.setUserIsLike(liked.contains(id));
+                responses.put(id, postResponse);
+            });
+        }
+        responses.forEach((id, postResponse) -> postResponse.setCountLike(
+                postResponse.getCountLike() + (int) hotCounterService.pendingPostLikes(id)));
+        if(likeWriteBuffer.isEnabled()){
+            responses.forEach((id, postResponse) -> {
+                postResponse.setCountLike(postResponse.getCountLike() + likeWriteBuffer.pendingPostDelta(id));
+                Boolean pendingState = likeWriteBuffer.pendingPostState(userId, id);
+                if(pendingState != null){
+                    postResponse.setUserIsLike(pendingState);
+                }
+            });
+        }
+        return ids.stream()
+                .map(responses::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private PostFeedCache.Page toPostPage(String scope, List<PostCursorDTO> keys, int limit, boolean sortLike, boolean filtered) {
+        String nextCursor = null;
+        if(keys.size() > limit){
+            keys = keys.subList(0, limit);
+            PostCursorDTO last = keys.get(limit - 1);
+            nextCursor = sortLike
+                    ? CursorUtils.encode(last.getCountLike(), last.getId())
+                    : CursorUtils.encode(last.getId());
+        }
+        List<Integer> ids = keys.stream().map(PostCursorDTO::getId).toList();
+        return new PostFeedCache.Page(scope, sortLike, filtered, ids, nextCursor);
+    }
+
+    private PostFeedCache.Page toSearchPage(List<Integer> ranked, String cursor, int limit) {
+        int from = 0;
+        if(cursor != null && !cursor.equals("")){
+            long[] keys = CursorUtils.decode(cursor, 1);
+            from = ranked.indexOf((int) keys[0]) + 1;
+            if(from == 0){
+                from = ranked.size();
+            }
+        }
+        int to = Math.min(from + limit, ranked.size());
+        List<Integer> ids = List.copyOf(ranked.subList(from, to));
+        String nextCursor = to < ranked.size() ? CursorUtils.encode(ranked.get(to - 1)) : null;
+        return new PostFeedCache.Page("forum", false, true, ids, nextCursor);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private String scopeOf(PostEntity post) {
+        return PostFeedCache.scopeOf(post.getType(), post.getGroup() == null ? null : post.getGroup().getId());
     }
 }
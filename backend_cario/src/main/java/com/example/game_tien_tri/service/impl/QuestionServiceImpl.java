@@ -1,12 +1,13 @@
 package com.example.game_tien_tri.service.impl;
 
+import com.example.game_tien_tri.cache.QuestionBank;
 import com.example.game_tien_tri.convert.QuestionConvert;
 import com.example.game_tien_tri.entity.AnswerEntity;
 import com.example.game_tien_tri.entity.QuestionEntity;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import com.example.game_tien_tri.model.dto.AnswerDTO;
 import com.example.game_tien_tri.model.dto.QuestionDTO;
-import com.example.game_tien_tri.model.response.AnswerResponse;
 import com.example.game_tien_tri.model.response.QuestionResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -23,7 +24,11 @@ public class QuestionServiceImpl implements QuestionService {
     private final QuestionConvert questionConvert;
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
+    private final QuestionBank questionBank;
+
+    // Writes are transactional so QuestionBank.refreshAfterCommit rebuilds once, after the whole change is visible.
     @Override
+    @Transactional
     public QuestionDTO createQuestion(QuestionDTO question) {
         try{
             QuestionEntity questionEntity = questionConvert.toQuestionEntity(question);
@@ -38,6 +43,7 @@ public class QuestionServiceImpl implements QuestionService {
                 questionEntity.getAnswers().add(answerEntity);
             }
             QuestionEntity save = questionRepository.save(questionEntity);
+            questionBank.refreshAfterCommit();
             return new QuestionDTO(save.getId(), save.getContent(), save.getType(), list);
         }catch(Exception e){
             throw new RuntimeException(e);
@@ -45,6 +51,7 @@ public class QuestionServiceImpl implements QuestionService {
     }
 
     @Override
+    @Transactional
     public QuestionDTO updateQuestion(QuestionDTO questionDTO) {
         if(questionDTO.getId() == null) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Question id is not null");
@@ -73,6 +80,7 @@ public class QuestionServiceImpl implements QuestionService {
             }
 
             QuestionEntity saved = questionRepository.save(questionEntity);
+            questionBank.refreshAfterCommit();
 
             List<AnswerDTO> answerDTOs = saved.getAnswers().stream()
                     .map(ans -> new AnswerDTO(ans.getId(), ans.getContent()))
@@ -85,9 +93,11 @@ public class QuestionServiceImpl implements QuestionService {
     }
 
     @Override
+    @Transactional
     public void deleteQuestion(Integer id) {
         try{
             questionRepository.deleteById(id);
+            questionBank.refreshAfterCommit();
         }catch(Exception e){
             throw new RuntimeException(e);
         }
@@ -98,21 +108,6 @@ public class QuestionServiceImpl implements QuestionService {
         if(type.isEmpty()){
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Type is not null");
         }
-        List<QuestionResponse> result = new ArrayList<>();
-        List<QuestionEntity> list = questionRepository.findByType(type);
-        for(QuestionEntity it : list){
-            QuestionResponse questionResponse = questionConvert.toQuestionResponse(it);
-            List<AnswerEntity> answers = it.getAnswers();
-            List<AnswerResponse> answerResponses = new ArrayList<>();
-            for(AnswerEntity i : answers){
-                AnswerResponse answerResponse = new AnswerResponse();
-                answerResponse.setId(i.getId());
-                answerResponse.setContent(i.getContent());
-                answerResponses.add(answerResponse);
-            }
-            questionResponse.setAnswers(answerResponses);
-            result.add(questionResponse);
-        }
-        return result;
+        return questionBank.getByType(type);
     }
 }
@@ -1,29 +1,43 @@
 package com.example.game_tien_tri.service.impl;
 
+import com.example.game_tien_tri.cache.UserCache;
 import com.example.game_tien_tri.entity.UserEntity;
 import com.example.game_tien_tri.model.dto.LoginDTO;
 import com.example.game_tien_tri.model.dto.RegisterDTO;
 import com.example.game_tien_tri.model.response.LoginResponse;
 import com.example.game_tien_tri.repository.UserRepository;
 import com.example.game_tien_tri.service.UserService;
+import com.example.game_tien_tri.utils.ExtractUserUtils;
 import com.example.game_tien_tri.utils.JwtTokenUtils;
+import com.example.game_tien_tri.utils.SiteRoles;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor passwordHashExecutor;
     private  final JwtTokenUtils jwtTokenUtils;
+    private final ExtractUserUtils extractUserUtils;
+    private final UserCache userCache;
     @Override
     public void registerUser(RegisterDTO registerDTO) {
         if(userRepository.existsByEmail(registerDTO.getEmail())) {
@@ -32,13 +46,14 @@ public class UserServiceImpl implements UserService {
         else if(userRepository.existsByUsername(registerDTO.getUsername())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Username already exists");
         }
+        String encodedPassword = onHashPool(() -> passwordEncoder.encode(registerDTO.getPassword()));
         try{
             UserEntity userEntity = new UserEntity();
             userEntity.setUsername(registerDTO.getUsername());
-            userEntity.setPassword(passwordEncoder.encode(registerDTO.getPassword()));
+            userEntity.setPassword(encodedPassword);
             userEntity.setEmail(registerDTO.getEmail());
             userEntity.setStatus(1);
-            userEntity.setRole("USER");
+            userEntity.setRole(SiteRoles.USER);
             userRepository.save(userEntity);
         }catch(Exception e){
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
@@ -52,17 +67,81 @@ public class UserServiceImpl implements UserService {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
         }
         UserEntity userEntity = user.get();
-        if(!passwordEncoder.matches(loginDTO.getPassword(), userEntity.getPassword())) {
+        if(!matchesPassword(loginDTO.getPassword(), userEntity.getPassword())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Wrong password");
         }
-        UsernamePasswordAuthenticationToken authenticationToken =
-                new UsernamePasswordAuthenticationToken(
-                        loginDTO.getUsername(), loginDTO.getPassword(),
-                        userEntity.getAuthorities());
-        authenticationManager.authenticate(authenticationToken);
         LoginResponse loginResponse = new LoginResponse();
         loginResponse.setToken(jwtTokenUtils.generateToken(userEntity));
         loginResponse.setRole(userEntity.getRole());
         return loginResponse;
     }
+
+    @Override
+    @Transactional
+    public void updateStatus(Integer id, Integer status, HttpServletRequest request) {
+        requireAdmin(request);
+        if(id == null || status == null){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        if(userRepository.updateStatus(id, status) == 0){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        userCache.evict(id);
+    }
+
+    @Override
+    @Transactional
+    public void updateRole(Integer id, String role, HttpServletRequest request) {
+        requireAdmin(request);
+        if(id == null || role == null || !SiteRoles.ALL.contains(role)){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        if(userRepository.updateRole(id, role) == 0){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        userCache.evict(id);
+    }
+
+    @Override
+    @Transactional
+    public void updateAvatar(String urlAvatar, HttpServletRequest request) {
+        UserEntity user = extractUserUtils.extract(request);
+        if(urlAvatar == null || urlAvatar.isBlank()){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Data is not valid");
+        }
+        userRepository.updateAvatar(user.getId(), urlAvatar);
+        userCache.evict(user.getId());
+    }
+
+    private boolean matchesPassword(String rawPassword, String encodedPassword) {
+        return onHashPool(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // The calling request thread still waits on the result; the pool bounds how many hashes burn CPU at once,
+    // and the bounded queue turns a login flood into fast 503s instead of a growing pile of blocked workers.
+    private <T> T onHashPool(Callable<T> task) {
+        Future<T> result;
+        try{
+            result = passwordHashExecutor.submit(task);
+        }catch(RejectedExecutionException e){
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again");
+        }
+        try{
+            return result.get();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again");
+        }catch(ExecutionException e){
+            log.error("Password hashing failed", e.getCause());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+        }
+    }
+
+    private void requireAdmin(HttpServletRequest request) {
+        UserEntity user = extractUserUtils.extract(request);
+        if(!SiteRoles.isAdmin(user.getRole())){
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "User is not authorized to manage users");
+        }
+    }
 }
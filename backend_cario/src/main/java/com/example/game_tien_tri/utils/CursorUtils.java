@@ -0,0 +1,44 @@
+package com.example.game_tien_tri.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public final class CursorUtils {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private CursorUtils() {
+    }
+
+    public static int pageSize(Integer limit) {
+        if(limit == null || limit <= 0){
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    public static String encode(Number... keys) {
+        return Arrays.stream(keys)
+                .map(key -> String.valueOf(key.longValue()))
+                .collect(Collectors.joining("_"));
+    }
+
+    public static long[] decode(String cursor, int size) {
+        String[] parts = cursor.split("_");
+        if(parts.length != size){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor is not valid");
+        }
+        try{
+            long[] keys = new long[size];
+            for(int i = 0; i < size; i++){
+                keys[i] = Long.parseLong(parts[i]);
+            }
+            return keys;
+        }catch(NumberFormatException e){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor is not valid");
+        }
+    }
+}
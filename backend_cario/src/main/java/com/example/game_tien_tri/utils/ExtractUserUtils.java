@@ -1,31 +1,34 @@
 package com.example.game_tien_tri.utils;
 
 import com.example.game_tien_tri.entity.UserEntity;
-import com.example.game_tien_tri.repository.UserRepository;
-import jakarta.servlet.http.Cookie;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 
 @Component
-@RequiredArgsConstructor
 public class ExtractUserUtils {
-    private final JwtTokenUtils jwtTokenUtils;
-    private final UserRepository userRepository;
-
+    // The principal is built once by JwtTokenFilter from the token claims; no lookup happens here.
+    // Each call gets its own id-only entity, so callers can attach it as the owner of new rows without sharing state.
     public UserEntity extract(HttpServletRequest request) {
-        Cookie[] cookies = request.getCookies();
-        String token = null;
-        if(cookies != null){
-            for(Cookie cookie : cookies){
-                if(cookie.getName().equals("token")){
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
-        String username = jwtTokenUtils.extractUsername(token);
-        UserEntity user = userRepository.findByUsernameAndStatus(username, 1).get();
+        UserPrincipal principal = principal();
+        UserEntity user = new UserEntity();
+        user.setId(principal.id());
+        user.setUsername(principal.username());
+        user.setRole(principal.role());
+        user.setStatus(1);
+        user.setTokenVersion(principal.tokenVersion());
         return user;
     }
+
+    public UserPrincipal principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal principal)){
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is not authenticated");
+        }
+        return principal;
+    }
 }
@@ -1,38 +1,99 @@
 package com.example.game_tien_tri.utils;
 
 import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 @RequiredArgsConstructor
 public class JwtTokenUtils {
+    public static final String USER_ID = "userId";
+    public static final String ROLE = "role";
+    public static final String VERSION = "ver";
+
     @Value("${jwt.expiration}")
     private String expriration;
     @Value("${jwt.secretKey}")
     private String secretKey;
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private long verifiedCacheSize;
+
+    private final MeterRegistry meterRegistry;
+
+    private Key signKey;
+    private JwtParser parser;
+    // Keyed by the SHA-256 digest of the token; entries never outlive the token's own exp claim.
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified");
+    }
 
     public String generateToken(UserEntity userEntity) {
-        Map<String, String> claims = new HashMap<>();
-        claims.put("username", userEntity.getUsername());
+        return generateToken(UserPrincipal.of(userEntity));
+    }
+
+    public String generateToken(UserPrincipal principal) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("username", principal.username());
+        claims.put(USER_ID, principal.id());
+        claims.put(ROLE, principal.role());
+        claims.put(VERSION, principal.tokenVersion());
         try{
             String token = Jwts.builder()
                     .setClaims(claims)
-                    .setSubject(userEntity.getUsername())
+                    .setSubject(principal.username())
                     .setExpiration(new Date(System.currentTimeMillis() + Long.parseLong(expriration) * 1000L))
-                    .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                    .signWith(signKey, SignatureAlgorithm.HS256)
                     .compact();
             return token;
         }catch(Exception e){
@@ -40,17 +101,54 @@ public class JwtTokenUtils {
         }
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public Claims verify(String token) {
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if(claims != null && claims.getExpiration().after(new Date())){
+            return claims;
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        if(claims.getExpiration() != null){
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    public Claims getClaimsFromToken(String token) {
+        return verify(token);
+    }
+
+    private static long remainingNanos(Claims claims) {
+        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+    }
+
+    private static String digest(String token) {
+        try{
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        }catch(NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public UserPrincipal toPrincipal(Claims claims) {
+        Integer userId = claims.get(USER_ID, Integer.class);
+        Integer version = claims.get(VERSION, Integer.class);
+        if(userId == null || version == null){
+            return null;
+        }
+        return new UserPrincipal(userId, claims.getSubject(), claims.get(ROLE, String.class), version);
     }
 
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public ResponseCookie tokenCookie(String token) {
+        return ResponseCookie.from("token", token)
+                .httpOnly(true)
+                .secure(true)
+                .sameSite("None")
+                .path("/")
+                .maxAge(getRemainingExpiration(token))
+                .build();
     }
 
     public int getRemainingExpiration(String token) {
@@ -64,18 +162,13 @@ public class JwtTokenUtils {
         return claimsResolver.apply(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        final Date expiration = this.getClaimsFromToken(token).getExpiration();
-        return expiration.before(new Date());
-    }
-
     public String extractUsername(String token) {
         return extractClaimsFromToken(token, Claims::getSubject);
     }
 
     public boolean validateToken(String token, UserEntity userEntity) {
-        final String username = this.extractUsername(token);
-        return(username.equals(userEntity.getUsername())
-                && !isTokenExpired(token));
+        final Claims claims = this.verify(token);
+        return(claims.getSubject().equals(userEntity.getUsername())
+                && claims.getExpiration().after(new Date()));
     }
 }
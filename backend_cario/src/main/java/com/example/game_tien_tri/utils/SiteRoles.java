@@ -0,0 +1,24 @@
+package com.example.game_tien_tri.utils;
+
+import java.util.Set;
+
+// Site roles as stored in users.role. Upper case, as registration has always written them and as WebSecurityConfig
+// checks them through the ROLE_ authorities; group roles (admin/moderator/member) are a separate, lower-case set.
+public final class SiteRoles {
+    public static final String USER = "USER";
+    public static final String MODERATOR = "MODERATOR";
+    public static final String ADMIN = "ADMIN";
+    public static final Set<String> ALL = Set.of(USER, MODERATOR, ADMIN);
+
+    private SiteRoles() {
+    }
+
+    public static boolean isAdmin(String role) {
+        return ADMIN.equals(role);
+    }
+
+    // Admins and moderators may moderate forum posts.
+    public static boolean isModerator(String role) {
+        return ADMIN.equals(role) || MODERATOR.equals(role);
+    }
+}
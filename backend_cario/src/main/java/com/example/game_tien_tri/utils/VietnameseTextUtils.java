@@ -0,0 +1,34 @@
+package com.example.game_tien_tri.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class VietnameseTextUtils {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private VietnameseTextUtils() {
+    }
+
+    public static String fold(String text) {
+        if(text == null){
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for(String token : NON_WORD.split(fold(text))){
+            if(!token.isEmpty()){
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
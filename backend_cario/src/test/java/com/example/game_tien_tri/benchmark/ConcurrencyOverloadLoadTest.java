@@ -0,0 +1,115 @@
+package com.example.game_tien_tri.benchmark;
+
+import com.example.game_tien_tri.config.ConcurrencyLimitProperties;
+import com.example.game_tien_tri.filters.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Open-loop load at 2x backend capacity, with and without ConcurrencyLimitFilter.
+// The backend is a pool of 4 "connections" held 50 ms each (80 req/s); arrivals come at 160 req/s whether or not
+// earlier requests finished, so without the limiter the queue, and every request's latency, grows for the whole run.
+// Prints p50/p99 of served requests per 2 s window and how many requests were shed, per priority.
+// Run: java -cp <test classpath> com.example.game_tien_tri.benchmark.ConcurrencyOverloadLoadTest
+public class ConcurrencyOverloadLoadTest {
+    private static final int CONNECTIONS = 4;
+    private static final long SERVICE_MS = 50;
+    private static final int ARRIVALS_PER_SECOND = 2 * CONNECTIONS * (int) (1000 / SERVICE_MS);
+    private static final int SECONDS = 10;
+    private static final int WINDOW_SECONDS = 2;
+
+    public static void main(String[] args) throws Exception {
+        run(false);
+        run(true);
+    }
+
+    private static void run(boolean enabled) throws Exception {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setEnabled(enabled);
+        properties.setInitialLimit(20);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        properties.setTargetLatencyMs(2 * SERVICE_MS);
+        properties.setHighPriority(List.of("/api/question/get"));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(properties, registry);
+        filter.init();
+        Semaphore connections = new Semaphore(CONNECTIONS, true);
+        FilterChain backend = (request, response) -> {
+            connections.acquireUninterruptibly();
+            try{
+                Thread.sleep(SERVICE_MS);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }finally{
+                connections.release();
+            }
+        };
+
+        int windows = SECONDS / WINDOW_SECONDS;
+        List<List<Long>> served = new ArrayList<>();
+        for(int i = 0; i < windows; i++){
+            served.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        int[][] counts = new int[2][2];
+        ExecutorService workers = Executors.newCachedThreadPool();
+        ScheduledExecutorService arrivals = Executors.newSingleThreadScheduledExecutor();
+        long begin = System.nanoTime();
+        int[] sequence = {0};
+        arrivals.scheduleAtFixedRate(() -> {
+            boolean high = sequence[0]++ % 10 == 0;
+            long arrivedAt = System.nanoTime();
+            workers.execute(() -> {
+                MockHttpServletRequest request = new MockHttpServletRequest("GET", high ? "/api/question/get" : "/api/posts/get");
+                request.setServletPath(request.getRequestURI());
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                try{
+                    filter.doFilter(request, response, backend);
+                }catch(Exception e){
+                    throw new IllegalStateException(e);
+                }
+                boolean shed = response.getStatus() == 503;
+                synchronized(counts){
+                    counts[high ? 0 : 1][shed ? 1 : 0]++;
+                }
+                int window = (int) ((arrivedAt - begin) / TimeUnit.SECONDS.toNanos(WINDOW_SECONDS));
+                if(!shed && window < windows){
+                    served.get(window).add(System.nanoTime() - arrivedAt);
+                }
+            });
+        }, 0, 1_000_000 / ARRIVALS_PER_SECOND, TimeUnit.MICROSECONDS);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(SECONDS));
+        arrivals.shutdownNow();
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.MINUTES);
+
+        System.out.printf("limiter %s, %d req/s offered to %d req/s capacity%n",
+                enabled ? "on" : "off", ARRIVALS_PER_SECOND, ARRIVALS_PER_SECOND / 2);
+        for(int i = 0; i < windows; i++){
+            List<Long> latencies = new ArrayList<>(served.get(i));
+            Collections.sort(latencies);
+            System.out.printf("  %2d-%2ds  served %4d  p50 %6d ms  p99 %6d ms%n", i * WINDOW_SECONDS, (i + 1) * WINDOW_SECONDS,
+                    latencies.size(), millis(latencies, 0.50), millis(latencies, 0.99));
+        }
+        System.out.printf("  shed: high %d/%d, normal %d/%d, final limit %.1f%n",
+                counts[0][1], counts[0][0] + counts[0][1], counts[1][1], counts[1][0] + counts[1][1],
+                registry.get("concurrency.limit").gauge().value());
+    }
+
+    private static long millis(List<Long> sorted, double quantile) {
+        if(sorted.isEmpty()){
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * quantile))));
+    }
+}
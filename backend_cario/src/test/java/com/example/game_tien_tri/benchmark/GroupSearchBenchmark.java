@@ -0,0 +1,140 @@
+package com.example.game_tien_tri.benchmark;
+
+import com.example.game_tien_tri.model.dto.GroupDTO;
+import com.example.game_tien_tri.search.GroupSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Group name search through the in-memory index vs the "name like '%...%'" scan it replaces.
+// page: get/all's first page, index ids filtered in SQL vs the LIKE query; suggest: typeahead top 10.
+// Run: java -cp <test classpath> org.openjdk.jmh.Main GroupSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupSearchBenchmark {
+    private static final String[] ONSETS = {"b", "c", "d", "đ", "g", "h", "k", "l", "m", "n", "ph", "s", "t", "th", "tr", "v"};
+    private static final String[] RHYMES = {"a", "an", "ang", "anh", "ao", "âu", "ê", "en", "i", "inh", "o", "ong", "ô", "ơn", "u", "ung", "ư", "ương"};
+    private static final int VOCABULARY = ONSETS.length * RHYMES.length;
+    private static final int PAGE = 20;
+
+    @Param({"10000", "100000"})
+    private int groups;
+
+    // Frequency rank of the query word: 0 is the most common word, higher ranks are rarer.
+    @Param({"0", "40", "200"})
+    private int termRank;
+
+    private double[] zipf;
+    private String query;
+
+    private GroupSearchIndex index;
+    private Connection connection;
+    private PreparedStatement like;
+    private PreparedStatement byIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        index = new GroupSearchIndex(null);
+        ReflectionTestUtils.setField(index, "maxResults", 1000);
+        connection = DriverManager.getConnection("jdbc:h2:mem:group_search;MODE=MySQL");
+        try(Statement statement = connection.createStatement()){
+            statement.execute("create table user_group (group_id int primary key, name varchar(255))");
+        }
+        zipf = new double[VOCABULARY];
+        double total = 0;
+        for(int rank = 0; rank < VOCABULARY; rank++){
+            total += 1.0 / (rank + 1);
+            zipf[rank] = total;
+        }
+        for(int rank = 0; rank < VOCABULARY; rank++){
+            zipf[rank] /= total;
+        }
+        query = word(termRank);
+        Random random = new Random(42);
+        try(PreparedStatement insert = connection.prepareStatement("insert into user_group values (?, ?)")){
+            for(int id = 1; id <= groups; id++){
+                String name = sentence(random, 2 + random.nextInt(4));
+                index.put(new GroupDTO(id, name, null, false));
+                insert.setInt(1, id);
+                insert.setString(2, name);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement("select group_id from user_group where name like ? order by group_id desc limit " + (PAGE + 1));
+        byIds = connection.prepareStatement("select group_id from user_group where group_id = any(?) order by group_id desc limit " + (PAGE + 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Integer> indexPage() throws SQLException {
+        byIds.setObject(1, index.matchIds(query).toArray(new Integer[0]));
+        return ids(byIds);
+    }
+
+    @Benchmark
+    public List<Integer> likePage() throws SQLException {
+        like.setString(1, "%" + query + "%");
+        return ids(like);
+    }
+
+    @Benchmark
+    public List<GroupDTO> indexSuggest() {
+        return index.suggest(query, 10);
+    }
+
+    private static List<Integer> ids(PreparedStatement statement) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try(ResultSet rows = statement.executeQuery()){
+            while(rows.next()){
+                ids.add(rows.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    // Word frequencies follow Zipf's law so common words match many groups and rare ones few.
+    private String sentence(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < length; i++){
+            int rank = Arrays.binarySearch(zipf, random.nextDouble());
+            text.append(i == 0 ? "" : " ").append(word(rank < 0 ? -rank - 1 : rank));
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        return ONSETS[rank % ONSETS.length] + RHYMES[rank / ONSETS.length];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.game_tien_tri.benchmark;
+
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import com.example.game_tien_tri.counter.HotCounterService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Likes on one popular post from many threads: a row update per like vs the in-memory hot counter folded once a second.
+// Run: java -cp <test classpath> org.openjdk.jmh.Main HotCounterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HotCounterBenchmark {
+    private static final int POST_ID = 1;
+
+    private JdbcConnectionPool dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private HotCounterService hotCounterService;
+    private ScheduledExecutorService folder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = JdbcConnectionPool.create("jdbc:h2:mem:hot_counter;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource.setMaxConnections(32);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table posts (post_id int primary key, like_count int)");
+        jdbcTemplate.execute("create table comments (comment_id int primary key, like_count int)");
+        jdbcTemplate.update("insert into posts values (?, 0)", POST_ID);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transaction = new TransactionTemplate(transactionManager);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PostFeedCache postFeedCache = new PostFeedCache(meterRegistry);
+        ReflectionTestUtils.setField(postFeedCache, "maxPosts", 5000L);
+        ReflectionTestUtils.setField(postFeedCache, "maxPages", 1000L);
+        ReflectionTestUtils.setField(postFeedCache, "pageTtlSeconds", 60L);
+        postFeedCache.init();
+        CommentTreeCache commentTreeCache = new CommentTreeCache(meterRegistry);
+        ReflectionTestUtils.setField(commentTreeCache, "maxPages", 2000L);
+        ReflectionTestUtils.setField(commentTreeCache, "pageTtlSeconds", 120L);
+        commentTreeCache.init();
+        hotCounterService = new HotCounterService(jdbcTemplate, transactionManager, postFeedCache, commentTreeCache, meterRegistry);
+        ReflectionTestUtils.setField(hotCounterService, "promoteThreshold", 20);
+        ReflectionTestUtils.setField(hotCounterService, "trackedKeys", 10000L);
+        hotCounterService.init();
+        folder = Executors.newSingleThreadScheduledExecutor();
+        folder.scheduleWithFixedDelay(hotCounterService::fold, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        folder.shutdown();
+        hotCounterService.shutdown();
+        dataSource.dispose();
+    }
+
+    @Benchmark
+    public void rowUpdate() {
+        transaction.executeWithoutResult(status ->
+                jdbcTemplate.update("update posts set like_count = like_count + ? where post_id = ?", 1, POST_ID));
+    }
+
+    @Benchmark
+    public void hotCounter() {
+        transaction.executeWithoutResult(status -> {
+            if(!hotCounterService.addPostLikes(POST_ID, 1)){
+                jdbcTemplate.update("update posts set like_count = like_count + ? where post_id = ?", 1, POST_ID);
+            }
+        });
+    }
+}
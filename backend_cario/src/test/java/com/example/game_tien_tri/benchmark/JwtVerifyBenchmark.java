@@ -0,0 +1,57 @@
+package com.example.game_tien_tri.benchmark;
+
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.utils.JwtTokenUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-request token check: full HS256 parse and signature check (cold) vs the verified-token cache hit (warm).
+// Run: java -cp <test classpath> org.openjdk.jmh.Main JwtVerifyBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerifyBenchmark {
+    private JwtTokenUtils jwtTokenUtils;
+    private JwtParser parser;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtTokenUtils = new JwtTokenUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtils, "expriration", "2592000");
+        ReflectionTestUtils.setField(jwtTokenUtils, "secretKey", "jVUluL1wrLZtYEz7CBS2USkpy5Vr7X8NOYyQgzoVZp0=");
+        ReflectionTestUtils.setField(jwtTokenUtils, "verifiedCacheSize", 10000L);
+        jwtTokenUtils.init();
+        parser = (JwtParser) ReflectionTestUtils.getField(jwtTokenUtils, "parser");
+        token = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "USER", 0));
+        jwtTokenUtils.verify(token);
+    }
+
+    @Benchmark
+    public Claims cold() {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims warm() {
+        return jwtTokenUtils.verify(token);
+    }
+}
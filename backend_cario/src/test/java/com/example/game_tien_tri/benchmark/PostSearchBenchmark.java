@@ -0,0 +1,129 @@
+package com.example.game_tien_tri.benchmark;
+
+import com.example.game_tien_tri.model.dto.PostDTO;
+import com.example.game_tien_tri.search.PostSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Title search through the in-memory index vs the "title like '%...%'" scan it replaces.
+// Run: java -cp <test classpath> org.openjdk.jmh.Main PostSearchBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostSearchBenchmark {
+    private static final String[] ONSETS = {"b", "c", "d", "đ", "g", "h", "k", "l", "m", "n", "ph", "s", "t", "th", "tr", "v"};
+    private static final String[] RHYMES = {"a", "an", "ang", "anh", "ao", "âu", "ê", "en", "i", "inh", "o", "ong", "ô", "ơn", "u", "ung", "ư", "ương"};
+    private static final int VOCABULARY = ONSETS.length * RHYMES.length;
+
+    @Param({"10000", "50000"})
+    private int posts;
+
+    // Frequency rank of the first query term: 0 is the most common word, higher ranks are rarer.
+    @Param({"0", "40", "200"})
+    private int termRank;
+
+    private double[] zipf;
+    private String query;
+
+    private PostSearchIndex index;
+    private Connection connection;
+    private PreparedStatement like;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        index = new PostSearchIndex(null);
+        ReflectionTestUtils.setField(index, "maxMemoryMb", 1024L);
+        ReflectionTestUtils.setField(index, "maxResults", 1000);
+        connection = DriverManager.getConnection("jdbc:h2:mem:post_search;MODE=MySQL");
+        try(Statement statement = connection.createStatement()){
+            statement.execute("create table post (post_id int primary key, title varchar(255), content varchar(2000), type varchar(20), status int)");
+        }
+        zipf = new double[VOCABULARY];
+        double total = 0;
+        for(int rank = 0; rank < VOCABULARY; rank++){
+            total += 1.0 / (rank + 1);
+            zipf[rank] = total;
+        }
+        for(int rank = 0; rank < VOCABULARY; rank++){
+            zipf[rank] /= total;
+        }
+        query = word(termRank) + " " + word(3);
+        Random random = new Random(42);
+        try(PreparedStatement insert = connection.prepareStatement("insert into post values (?, ?, ?, 'forum', 1)")){
+            for(int id = 1; id <= posts; id++){
+                String title = sentence(random, 8);
+                String content = sentence(random, 60);
+                index.put(new PostDTO(id, title, content, "forum", 1, null));
+                insert.setInt(1, id);
+                insert.setString(2, title);
+                insert.setString(3, content);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        like = connection.prepareStatement("select post_id from post where status = 1 and type = 'forum' and title like ? order by post_id desc limit 1000");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Integer> index() {
+        return index.search(query, "forum", 1);
+    }
+
+    @Benchmark
+    public List<Integer> likeScan() throws SQLException {
+        like.setString(1, "%" + query + "%");
+        List<Integer> ids = new ArrayList<>();
+        try(ResultSet rows = like.executeQuery()){
+            while(rows.next()){
+                ids.add(rows.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    // Word frequencies follow Zipf's law so common terms have long postings and rare ones short, as in real titles.
+    private String sentence(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < length; i++){
+            int rank = Arrays.binarySearch(zipf, random.nextDouble());
+            text.append(i == 0 ? "" : " ").append(word(rank < 0 ? -rank - 1 : rank));
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        return ONSETS[rank % ONSETS.length] + RHYMES[rank / ONSETS.length];
+    }
+}
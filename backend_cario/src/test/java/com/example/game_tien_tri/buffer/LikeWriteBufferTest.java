@@ -0,0 +1,94 @@
+package com.example.game_tien_tri.buffer;
+
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class LikeWriteBufferTest {
+    private static final int POST_ID = 1;
+
+    private JdbcTemplate jdbcTemplate;
+    private LikeWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:like_write_buffer_test;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table likes (like_id int auto_increment primary key, user_id int, post_id int, " +
+                "comment_id int, created_at timestamp, constraint uk_likes_user_post unique (user_id, post_id))");
+        jdbcTemplate.execute("create table posts (post_id int primary key, like_count int)");
+        jdbcTemplate.execute("create table comments (comment_id int primary key, like_count int)");
+        jdbcTemplate.update("insert into posts values (?, 0)", POST_ID);
+        buffer = new LikeWriteBuffer(jdbcTemplate, new DataSourceTransactionManager(dataSource), mock(TaskScheduler.class),
+                mock(PostFeedCache.class), mock(CommentTreeCache.class));
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "maxBatch", 1_000_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void toggleDuringHandOffToFlushSeesTheFlushingEntry() throws Exception {
+        assertTrue(buffer.togglePost(1, POST_ID, () -> isStoredLike(1)));
+        CountDownLatch inHandOff = new CountDownLatch(1);
+        CountDownLatch toggled = new CountDownLatch(1);
+        // Holds the flush between taking the entry out of pending and recording it as in flight.
+        ReflectionTestUtils.setField(buffer, "inFlight", new ConcurrentHashMap<Object, Object>() {
+            @Override
+            public Object put(Object key, Object value) {
+                if(inHandOff.getCount() > 0){
+                    inHandOff.countDown();
+                    try{
+                        toggled.await(200, TimeUnit.MILLISECONDS);
+                    }catch(InterruptedException e){
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.put(key, value);
+            }
+        });
+        Thread flusher = new Thread(buffer::flush);
+        flusher.start();
+        inHandOff.await();
+
+        boolean[] unliked = new boolean[1];
+        Thread toggler = new Thread(() -> {
+            unliked[0] = !buffer.togglePost(1, POST_ID, () -> isStoredLike(1));
+            toggled.countDown();
+        });
+        toggler.start();
+        flusher.join();
+        toggler.join();
+        buffer.flush();
+
+        assertTrue(unliked[0]);
+        assertFalse(isStoredLike(1));
+        assertEquals(0, buffer.pendingPostDelta(POST_ID));
+        assertEquals(0, jdbcTemplate.queryForObject("select like_count from posts where post_id = ?", Integer.class, POST_ID));
+    }
+
+    private boolean isStoredLike(int userId) {
+        return jdbcTemplate.queryForObject("select count(*) from likes where user_id = ? and post_id = ?",
+                Integer.class, userId, POST_ID) > 0;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.game_tien_tri.cache;
+
+import com.example.game_tien_tri.model.response.PostResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostFeedCacheTest {
+    private PostFeedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PostFeedCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxPosts", 100L);
+        ReflectionTestUtils.setField(cache, "maxPages", 100L);
+        ReflectionTestUtils.setField(cache, "pageTtlSeconds", 60L);
+        cache.init();
+    }
+
+    @Test
+    void fragmentLoadedBeforeEvictionIsNotCached() {
+        long generation = cache.generation(1);
+        // A write commits and evicts while the reader is still loading the old row.
+        cache.evictPost(1);
+
+        cache.putPost(post(1, "old title"), generation);
+
+        assertTrue(cache.getPosts(List.of(1)).isEmpty());
+    }
+
+    @Test
+    void fragmentLoadedAfterEvictionIsCached() {
+        cache.evictPost(1);
+        long generation = cache.generation(1);
+
+        cache.putPost(post(1, "new title"), generation);
+
+        assertEquals("new title", cache.getPosts(List.of(1)).get(1).getTitle());
+    }
+
+    @Test
+    void evictionOfAnotherPostDoesNotBlockCaching() {
+        long generation = cache.generation(1);
+        cache.evictPost(2);
+
+        cache.putPost(post(1, "title"), generation);
+
+        assertEquals(1, cache.getPosts(List.of(1)).size());
+    }
+
+    private static PostResponse post(int id, String title) {
+        PostResponse post = new PostResponse();
+        post.setId(id);
+        post.setTitle(title);
+        return post;
+    }
+}
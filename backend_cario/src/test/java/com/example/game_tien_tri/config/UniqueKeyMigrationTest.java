@@ -0,0 +1,59 @@
+package com.example.game_tien_tri.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UniqueKeyMigrationTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:unique_key_migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void keepsOldestLikePerUserAndTarget() throws Exception {
+        jdbcTemplate.execute("create table likes (like_id int auto_increment primary key, user_id int, post_id int, comment_id int)");
+        jdbcTemplate.update("insert into likes (user_id, post_id, comment_id) values " +
+                "(1, 10, null), (1, 10, null), (1, 10, null), (2, 10, null), (1, 11, null), " +
+                "(1, null, 20), (1, null, 20), (2, null, 20)");
+
+        new UniqueKeyMigration(dataSource).migrate();
+
+        List<Integer> remaining = jdbcTemplate.queryForList("select like_id from likes order by like_id", Integer.class);
+        assertEquals(List.of(1, 4, 5, 6, 8), remaining);
+        jdbcTemplate.execute("alter table likes add constraint uk_likes_user_post unique (user_id, post_id)");
+        jdbcTemplate.execute("alter table likes add constraint uk_likes_user_comment unique (user_id, comment_id)");
+    }
+
+    @Test
+    void keepsOldestMembershipOnSchemaWithoutMemberCount() throws Exception {
+        // Schema as it was before member_count existed.
+        jdbcTemplate.execute("create table user_group (group_id int primary key, name varchar(50))");
+        jdbcTemplate.execute("create table group_members (group_member_id int auto_increment primary key, group_id int, user_id int, role varchar(20))");
+        jdbcTemplate.update("insert into user_group values (1, 'a'), (2, 'b')");
+        jdbcTemplate.update("insert into group_members (group_id, user_id, role) values " +
+                "(1, 7, 'admin'), (1, 8, 'member'), (1, 8, 'member'), (1, 8, 'member'), (2, 8, 'member')");
+
+        new UniqueKeyMigration(dataSource).migrate();
+
+        List<Integer> remaining = jdbcTemplate.queryForList("select group_member_id from group_members order by group_member_id", Integer.class);
+        assertEquals(List.of(1, 2, 5), remaining);
+        jdbcTemplate.execute("alter table group_members add constraint uk_group_members_group_user unique (group_id, user_id)");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.game_tien_tri.counter;
+
+import com.example.game_tien_tri.cache.CommentTreeCache;
+import com.example.game_tien_tri.cache.PostFeedCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotCounterServiceTest {
+    private static final int POST_ID = 1;
+
+    private JdbcTemplate jdbcTemplate;
+    private HotCounterService hotCounterService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:hot_counter_test;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table posts (post_id int primary key, like_count int)");
+        jdbcTemplate.execute("create table comments (comment_id int primary key, like_count int)");
+        jdbcTemplate.update("insert into posts values (?, 0)", POST_ID);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PostFeedCache postFeedCache = new PostFeedCache(meterRegistry);
+        ReflectionTestUtils.setField(postFeedCache, "maxPosts", 100L);
+        ReflectionTestUtils.setField(postFeedCache, "maxPages", 100L);
+        ReflectionTestUtils.setField(postFeedCache, "pageTtlSeconds", 60L);
+        postFeedCache.init();
+        CommentTreeCache commentTreeCache = new CommentTreeCache(meterRegistry);
+        ReflectionTestUtils.setField(commentTreeCache, "maxPages", 100L);
+        ReflectionTestUtils.setField(commentTreeCache, "pageTtlSeconds", 60L);
+        commentTreeCache.init();
+        hotCounterService = new HotCounterService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                postFeedCache, commentTreeCache, meterRegistry);
+        ReflectionTestUtils.setField(hotCounterService, "promoteThreshold", 1);
+        ReflectionTestUtils.setField(hotCounterService, "trackedKeys", 100L);
+        hotCounterService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void rollbackAfterCounterRetiredStillReachesRow() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(hotCounterService.addPostLikes(POST_ID, 1));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // Fold the delta, then let the idle counter retire and drop out of the retiring set.
+        hotCounterService.fold();
+        hotCounterService.fold();
+        hotCounterService.fold();
+        assertEquals(1, likeCount());
+        assertTrue(hotCounterService.hotPostIds().isEmpty());
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(-1, hotCounterService.pendingPostLikes(POST_ID));
+        hotCounterService.fold();
+        assertEquals(0, likeCount());
+        assertEquals(0, hotCounterService.pendingPostLikes(POST_ID));
+    }
+
+    @Test
+    void rollbackBeforeFoldCancelsPendingDelta() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(hotCounterService.addPostLikes(POST_ID, 1));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertEquals(0, hotCounterService.pendingPostLikes(POST_ID));
+        hotCounterService.fold();
+        assertEquals(0, likeCount());
+    }
+
+    private int likeCount() {
+        return jdbcTemplate.queryForObject("select like_count from posts where post_id = ?", Integer.class, POST_ID);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.game_tien_tri.filters;
+
+import com.example.game_tien_tri.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitFilterTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private ConcurrencyLimitProperties properties;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(20);
+        properties.setMinLimit(10);
+        properties.setMaxLimit(40);
+        properties.setTargetLatencyMs(50);
+        properties.setBackoffRatio(0.5);
+        properties.setUnsampled(List.of("/login"));
+        filter = new ConcurrencyLimitFilter(properties, new SimpleMeterRegistry());
+        filter.init();
+    }
+
+    @Test
+    void fastSamplesUnderLoadGrowLimitByAboutOnePerLimit() {
+        for (int i = 0; i < 20; i++) {
+            filter.onSample(FAST, 15);
+        }
+
+        assertEquals(21, filter.currentLimit(), 0.05);
+    }
+
+    @Test
+    void fastSamplesWhileMostlyIdleLeaveLimitAlone() {
+        for (int i = 0; i < 100; i++) {
+            filter.onSample(FAST, 2);
+        }
+
+        assertEquals(20, filter.currentLimit());
+    }
+
+    @Test
+    void limitNeverExceedsMax() {
+        for (int i = 0; i < 10_000; i++) {
+            filter.onSample(FAST, 40);
+        }
+
+        assertEquals(40, filter.currentLimit());
+    }
+
+    @Test
+    void slowSamplesBackOffOncePerTargetLatencyDownToMin() throws Exception {
+        filter.onSample(SLOW, 1);
+        filter.onSample(SLOW, 1);
+        filter.onSample(SLOW, 1);
+        assertEquals(10, filter.currentLimit());
+
+        properties.setMinLimit(1);
+        filter.onSample(SLOW, 1);
+        assertEquals(10, filter.currentLimit());
+        Thread.sleep(properties.getTargetLatencyMs() + 5);
+        filter.onSample(SLOW, 1);
+        assertEquals(5, filter.currentLimit());
+    }
+
+    @Test
+    void slowUnsampledRouteDoesNotMoveLimit() throws Exception {
+        filter(request("/login"), (request, response) -> sleep());
+
+        assertEquals(20, filter.currentLimit());
+    }
+
+    @Test
+    void earlyRejectionsDoNotMoveLimit() throws Exception {
+        filter(request("/api/post"), (request, response) -> {
+            sleep();
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        });
+        filter(request("/api/post"), (request, response) -> {
+            sleep();
+            ((HttpServletResponse) response).setStatus(429);
+        });
+
+        assertEquals(20, filter.currentLimit());
+    }
+
+    @Test
+    void slowSampledRouteBacksOff() throws Exception {
+        filter(request("/api/post"), (request, response) -> sleep());
+
+        assertTrue(filter.currentLimit() < 20);
+    }
+
+    private void filter(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(SLOW));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
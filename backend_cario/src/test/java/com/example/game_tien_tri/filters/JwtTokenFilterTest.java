@@ -0,0 +1,98 @@
+package com.example.game_tien_tri.filters;
+
+import com.example.game_tien_tri.cache.UserCache;
+import com.example.game_tien_tri.logging.RequestLogger;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.utils.JwtTokenUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtTokenFilterTest {
+    private final UserCache userCache = mock(UserCache.class);
+    private JwtTokenUtils jwtTokenUtils;
+    private JwtTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtils = new JwtTokenUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtils, "expriration", "3600");
+        ReflectionTestUtils.setField(jwtTokenUtils, "secretKey", "jVUluL1wrLZtYEz7CBS2USkpy5Vr7X8NOYyQgzoVZp0=");
+        ReflectionTestUtils.setField(jwtTokenUtils, "verifiedCacheSize", 100L);
+        jwtTokenUtils.init();
+        filter = new JwtTokenFilter(userCache, jwtTokenUtils, mock(RequestLogger.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void currentTokenAuthenticatesWithoutReload() throws Exception {
+        String token = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "USER", 3));
+        when(userCache.getTokenVersion(1)).thenReturn(3);
+
+        MockHttpServletResponse response = filter(token);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(new UserPrincipal(1, "alice", "USER", 3), SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void tokenFromBeforeVersionBumpIsNotTrusted() throws Exception {
+        String token = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "ADMIN", 3));
+        filter(token);
+        SecurityContextHolder.clearContext();
+        // Role revoked: token_version moves on while the old token's signature is still cached.
+        when(userCache.getTokenVersion(1)).thenReturn(4);
+        when(userCache.getActiveById(1)).thenReturn(Optional.of(new UserPrincipal(1, "alice", "USER", 4)));
+
+        MockHttpServletResponse response = filter(token);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("USER", ((UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).role());
+        assertNotNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void tokenOfDeactivatedUserIsRejected() throws Exception {
+        String token = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "USER", 3));
+        when(userCache.getTokenVersion(1)).thenReturn(3);
+        filter(token);
+        SecurityContextHolder.clearContext();
+        when(userCache.getTokenVersion(1)).thenReturn(null);
+
+        MockHttpServletResponse response = filter(token);
+
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletResponse filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/post");
+        request.setServletPath("/api/post");
+        request.setCookies(new Cookie("token", token));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.game_tien_tri.filters;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "rate-limit.routes.[/login].capacity=2",
+        "rate-limit.routes.[/login].refill-per-second=0"
+})
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void loginIsLimitedPerForwardedClient() {
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1"));
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1"));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.1"));
+
+        // Same proxy hop (loopback), different client behind it: its own bucket.
+        assertNotEquals(HttpStatus.TOO_MANY_REQUESTS, login("203.0.113.2"));
+    }
+
+    private HttpStatus login(String clientIp) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Forwarded-For", clientIp);
+        return HttpStatus.valueOf(restTemplate.postForEntity("/login", new HttpEntity<>("{}", headers), String.class)
+                .getStatusCode().value());
+    }
+}
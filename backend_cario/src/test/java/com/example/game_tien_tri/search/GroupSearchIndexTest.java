@@ -0,0 +1,110 @@
+package com.example.game_tien_tri.search;
+
+import com.example.game_tien_tri.model.dto.GroupDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupSearchIndexTest {
+    private GroupSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new GroupSearchIndex(null);
+        ReflectionTestUtils.setField(index, "maxResults", 5);
+    }
+
+    @Test
+    void everyTokenMustMatchInAnyOrder() {
+        put(1, "Đội bóng đá Hà Nội");
+        put(2, "Đội bóng chuyền Hà Nội");
+        put(3, "Bóng đá Sài Gòn");
+
+        assertEquals(List.of(1), ranked("ha noi bong da"));
+        assertEquals(List.of(3, 1), ranked("bóng đá"));
+        assertEquals(List.of(1, 2), ranked("doi ha"));
+        assertTrue(ranked("bong da da nang").isEmpty());
+    }
+
+    @Test
+    void wholeQueryMatchesRankBeforeTokenMatches() {
+        put(1, "Hà Nội bóng đá");
+        put(2, "Fan bóng đá Hà Nội");
+        put(3, "Bóng đá Hà Nội");
+
+        assertEquals(List.of(3, 2, 1), ranked("bong da ha noi"));
+    }
+
+    @Test
+    void suggestionsAreCappedButMatchIdsAreNot() {
+        for(int id = 1; id <= 12; id++){
+            put(id, "Cộng đồng dự đoán " + id);
+        }
+
+        assertEquals(12, index.matchIds("du doan").size());
+        assertEquals(3, index.suggest("du doan", 3).size());
+        assertEquals(5, index.suggest("du doan", 50).size());
+    }
+
+    @Test
+    void renameReplacesOldName() {
+        put(1, "Hội yêu mèo");
+
+        put(1, "Hội yêu chó");
+
+        assertTrue(ranked("meo").isEmpty());
+        assertEquals(List.of(1), ranked("cho"));
+        assertEquals("Hội yêu chó", index.suggest("hoi yeu", 1).get(0).getName());
+    }
+
+    @Test
+    void deletedGroupIsNoLongerFound() {
+        put(1, "Câu lạc bộ cờ vua");
+        put(2, "Câu lạc bộ cờ tướng");
+
+        index.remove(1);
+
+        assertEquals(List.of(2), ranked("cau lac bo co"));
+        assertTrue(ranked("vua").isEmpty());
+    }
+
+    @Test
+    void updatesApplyOnlyAfterCommit() {
+        put(1, "Hội yêu mèo");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try{
+            put(2, "Hội yêu mèo đen");
+            index.remove(1);
+            assertEquals(List.of(1), index.matchIds("meo"));
+        }finally{
+            // Rolled back: afterCommit never runs.
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(1), index.matchIds("meo"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try{
+            put(2, "Hội yêu mèo đen");
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        }finally{
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(1, 2), ranked("meo"));
+    }
+
+    private List<Integer> ranked(String text) {
+        return index.suggest(text, 5).stream().map(GroupDTO::getId).toList();
+    }
+
+    private void put(int id, String name) {
+        index.put(new GroupDTO(id, name, null, false));
+    }
+}
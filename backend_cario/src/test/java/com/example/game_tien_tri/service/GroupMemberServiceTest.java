@@ -0,0 +1,227 @@
+package com.example.game_tien_tri.service;
+
+import com.example.game_tien_tri.entity.GroupEntity;
+import com.example.game_tien_tri.entity.GroupMemberEntity;
+import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.model.request.GroupMemberBulkRequest;
+import com.example.game_tien_tri.model.response.GroupMemberBulkResult;
+import com.example.game_tien_tri.repository.GroupMemberRepository;
+import com.example.game_tien_tri.repository.GroupRepository;
+import com.example.game_tien_tri.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupMemberServiceTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private GroupMemberService groupMemberService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void parallelJoinsFromOneUserAddOneMembership() throws Exception {
+        UserEntity user = user();
+        GroupEntity group = group(false);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < 8; t++){
+            futures.add(pool.submit(() -> {
+                authenticate(user);
+                start.await();
+                groupMemberService.joinGroup(group.getId(), new MockHttpServletRequest());
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> future : futures){
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(List.of("member"), groupMemberRepository.findRoles(group.getId(), user.getId()));
+        assertEquals(1, groupRepository.findById(group.getId()).get().getMemberCount());
+    }
+
+    @Test
+    void joiningPrivateGroupIsPending() {
+        UserEntity user = user();
+        GroupEntity group = group(true);
+        authenticate(user);
+
+        groupMemberService.joinGroup(group.getId(), new MockHttpServletRequest());
+
+        assertEquals(0, groupMemberRepository.findByGroupIdAndUserId(group.getId(), user.getId()).get().getStatus());
+    }
+
+    @Test
+    void updateRoleAcceptsOnlyGroupRoles() {
+        UserEntity admin = user();
+        UserEntity target = user();
+        GroupEntity group = group(false);
+        member(group, admin, "admin");
+        member(group, target, "member");
+        authenticate(admin);
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                () -> groupMemberService.updateRole(group.getId(), target.getId(), "owner", new MockHttpServletRequest()));
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals(List.of("member"), groupMemberRepository.findRoles(group.getId(), target.getId()));
+
+        groupMemberService.updateRole(group.getId(), target.getId(), "moderator", new MockHttpServletRequest());
+        assertEquals(List.of("moderator"), groupMemberRepository.findRoles(group.getId(), target.getId()));
+    }
+
+    @Test
+    void bulkAddUsesSameStatusRuleAsJoin() {
+        UserEntity admin = user();
+        UserEntity existing = user();
+        UserEntity first = user();
+        UserEntity second = user();
+        GroupEntity privateGroup = group(true);
+        GroupEntity publicGroup = group(false);
+        member(privateGroup, admin, "admin");
+        member(privateGroup, existing, "member");
+        member(publicGroup, admin, "admin");
+        authenticate(admin);
+
+        List<GroupMemberBulkResult> results = groupMemberService.addMembers(new GroupMemberBulkRequest(privateGroup.getId(),
+                List.of(existing.getId(), first.getId(), second.getId(), -1), null), new MockHttpServletRequest());
+        groupMemberService.addMembers(new GroupMemberBulkRequest(publicGroup.getId(),
+                List.of(first.getId()), null), new MockHttpServletRequest());
+
+        assertEquals(List.of("already_member", "added", "added", "user_not_found"),
+                results.stream().map(GroupMemberBulkResult::getResult).toList());
+        assertEquals(0, groupMemberRepository.findByGroupIdAndUserId(privateGroup.getId(), first.getId()).get().getStatus());
+        assertEquals(0, groupMemberRepository.findByGroupIdAndUserId(privateGroup.getId(), second.getId()).get().getStatus());
+        assertEquals(1, groupMemberRepository.findByGroupIdAndUserId(publicGroup.getId(), first.getId()).get().getStatus());
+        assertEquals(2, groupRepository.findById(privateGroup.getId()).get().getMemberCount());
+    }
+
+    @Test
+    void bulkAddRecountsWhenDriverReportsNoRowCounts() {
+        UserEntity admin = user();
+        UserEntity first = user();
+        UserEntity second = user();
+        GroupEntity group = group(false);
+        member(group, admin, "admin");
+        authenticate(admin);
+        Object service = AopTestUtils.getTargetObject(groupMemberService);
+        JdbcTemplate jdbcTemplate = (JdbcTemplate) ReflectionTestUtils.getField(service, "jdbcTemplate");
+        // What Connector/J returns for an insert batch rewritten into one multi-row statement.
+        JdbcTemplate rewriting = spy(jdbcTemplate);
+        doAnswer(invocation -> {
+            int[] counts = (int[]) invocation.callRealMethod();
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(rewriting).batchUpdate(anyString(), anyList());
+        ReflectionTestUtils.setField(service, "jdbcTemplate", rewriting);
+        try{
+            groupMemberService.addMembers(new GroupMemberBulkRequest(group.getId(),
+                    List.of(first.getId(), second.getId()), null), new MockHttpServletRequest());
+            assertEquals(3, groupRepository.findById(group.getId()).get().getMemberCount());
+
+            groupMemberService.removeMembers(new GroupMemberBulkRequest(group.getId(),
+                    List.of(first.getId()), null), new MockHttpServletRequest());
+            assertEquals(2, groupRepository.findById(group.getId()).get().getMemberCount());
+        }finally{
+            ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        }
+    }
+
+    @Test
+    void bulkRoleUpdateRejectsAdminAndUnknownRoles() {
+        UserEntity admin = user();
+        UserEntity target = user();
+        GroupEntity group = group(false);
+        member(group, admin, "admin");
+        member(group, target, "member");
+        authenticate(admin);
+
+        for(String role : new String[]{"admin", "owner", "", null}){
+            GroupMemberBulkRequest bulkRequest = new GroupMemberBulkRequest(group.getId(), List.of(target.getId()), role);
+            ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                    () -> groupMemberService.updateRoles(bulkRequest, new MockHttpServletRequest()));
+            assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        }
+        assertEquals(List.of("member"), groupMemberRepository.findRoles(group.getId(), target.getId()));
+
+        List<GroupMemberBulkResult> results = groupMemberService.updateRoles(new GroupMemberBulkRequest(group.getId(),
+                List.of(target.getId(), admin.getId()), "moderator"), new MockHttpServletRequest());
+        assertEquals(List.of("updated", "forbidden"), results.stream().map(GroupMemberBulkResult::getResult).toList());
+        assertEquals(List.of("moderator"), groupMemberRepository.findRoles(group.getId(), target.getId()));
+    }
+
+    private UserEntity user() {
+        int n = SEQUENCE.incrementAndGet();
+        UserEntity user = new UserEntity();
+        user.setUsername("member-" + n);
+        user.setEmail("member-" + n + "@example.com");
+        user.setPassword("x");
+        user.setRole("USER");
+        user.setStatus(1);
+        return userRepository.save(user);
+    }
+
+    private GroupEntity group(boolean isPrivate) {
+        GroupEntity group = new GroupEntity();
+        group.setName("members " + SEQUENCE.incrementAndGet());
+        group.setIsPrivate(isPrivate);
+        return groupRepository.save(group);
+    }
+
+    private void member(GroupEntity group, UserEntity user, String role) {
+        GroupMemberEntity member = new GroupMemberEntity();
+        member.setGroup(group);
+        member.setUser(user);
+        member.setRole(role);
+        member.setStatus(1);
+        groupMemberRepository.save(member);
+    }
+
+    private void authenticate(UserEntity user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), 0), null, List.of()));
+    }
+}
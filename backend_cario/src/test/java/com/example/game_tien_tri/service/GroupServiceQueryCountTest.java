@@ -0,0 +1,108 @@
+package com.example.game_tien_tri.service;
+
+import com.example.game_tien_tri.entity.GroupEntity;
+import com.example.game_tien_tri.entity.GroupMemberEntity;
+import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.model.request.GroupRequest;
+import com.example.game_tien_tri.model.response.GroupPageResponse;
+import com.example.game_tien_tri.repository.GroupMemberRepository;
+import com.example.game_tien_tri.repository.GroupRepository;
+import com.example.game_tien_tri.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GroupServiceQueryCountTest {
+    @Autowired
+    private GroupService groupService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GroupRepository groupRepository;
+    @Autowired
+    private GroupMemberRepository groupMemberRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUsername("group-browser");
+        user.setEmail("group-browser@example.com");
+        user.setPassword("x");
+        user.setRole("USER");
+        user.setStatus(1);
+        user = userRepository.save(user);
+        for(int i = 0; i < 120; i++){
+            GroupEntity group = new GroupEntity();
+            group.setName("group " + i);
+            group.setDescription("description " + i);
+            group.setIsPrivate(i % 2 == 0);
+            group.setMemberCount(1 + i % 7);
+            group = groupRepository.save(group);
+            GroupMemberEntity member = new GroupMemberEntity();
+            member.setGroup(group);
+            member.setUser(user);
+            member.setRole(i % 5 == 0 ? "admin" : "member");
+            member.setStatus(1);
+            groupMemberRepository.save(member);
+        }
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), 0), null, List.of()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void allGroupsPageIssuesSameStatementCountForAnyPageSize() {
+        assertConstant(request -> groupService.getAll(request, new MockHttpServletRequest()), "time");
+        assertConstant(request -> groupService.getAll(request, new MockHttpServletRequest()), "member");
+    }
+
+    @Test
+    void joinedGroupsPageIssuesSameStatementCountForAnyPageSize() {
+        assertConstant(request -> groupService.getByUser(request, new MockHttpServletRequest()), "time");
+        assertConstant(request -> groupService.getByUser(request, new MockHttpServletRequest()), "activity");
+    }
+
+    private void assertConstant(Function<GroupRequest, GroupPageResponse> load, String sort) {
+        long one = statements(load, sort, 1);
+        long twenty = statements(load, sort, 20);
+        long hundred = statements(load, sort, 100);
+
+        assertEquals(1, one);
+        assertEquals(one, twenty);
+        assertEquals(one, hundred);
+    }
+
+    private long statements(Function<GroupRequest, GroupPageResponse> load, String sort, int limit) {
+        statistics.clear();
+        GroupPageResponse page = load.apply(new GroupRequest(null, sort, null, limit));
+        assertEquals(limit, page.getGroups().size());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.game_tien_tri.service;
+
+import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.LikeDTO;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.repository.LikeRepository;
+import com.example.game_tien_tri.repository.PostRepository;
+import com.example.game_tien_tri.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Hot-counter promotion is pushed out of reach so every toggle writes like_count directly.
+@SpringBootTest(properties = "counter.hot.promote-writes-per-second=1000000")
+@ActiveProfiles("test")
+class LikeServiceConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int TOGGLES_PER_THREAD = 25;
+
+    @Autowired
+    private LikeService likeService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+
+    private final List<Integer> postIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        likeRepository.deleteAll();
+        postRepository.deleteAllById(postIds);
+    }
+
+    @Test
+    void parallelTogglesFromOneUserKeepRowsAndCounterInStep() throws Exception {
+        UserEntity user = new UserEntity();
+        user.setUsername("double-clicker");
+        user.setEmail("double-clicker@example.com");
+        user.setPassword("x");
+        user.setRole("USER");
+        user.setStatus(1);
+        user = userRepository.save(user);
+        PostEntity post = new PostEntity();
+        post.setTitle("contended");
+        post.setContent("contended");
+        post.setType("forum");
+        post.setStatus(1);
+        post.setUser(user);
+        post = postRepository.save(post);
+        postIds.add(post.getId());
+
+        UserPrincipal principal = new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), 0);
+        Integer postId = post.getId();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for(int t = 0; t < THREADS; t++){
+            futures.add(pool.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+                start.await();
+                for(int i = 0; i < TOGGLES_PER_THREAD; i++){
+                    likeService.like(new LikeDTO(postId, null), new MockHttpServletRequest());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> future : futures){
+            future.get();
+        }
+        pool.shutdown();
+
+        int rows = likeRepository.countByPostId(postId);
+        assertTrue(rows <= 1, "unique key allows at most one like per user and post, found " + rows);
+        assertEquals(rows, postRepository.findLikeCount(postId));
+    }
+}
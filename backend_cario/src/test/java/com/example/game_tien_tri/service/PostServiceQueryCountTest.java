@@ -0,0 +1,105 @@
+package com.example.game_tien_tri.service;
+
+import com.example.game_tien_tri.cache.PostFeedCache;
+import com.example.game_tien_tri.entity.LikeEntity;
+import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.model.request.PostRequest;
+import com.example.game_tien_tri.model.response.PostPageResponse;
+import com.example.game_tien_tri.repository.LikeRepository;
+import com.example.game_tien_tri.repository.PostRepository;
+import com.example.game_tien_tri.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PostServiceQueryCountTest {
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private LikeRepository likeRepository;
+    @Autowired
+    private PostFeedCache postFeedCache;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Integer> postIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity user = new UserEntity();
+        user.setUsername("feed-reader");
+        user.setEmail("feed-reader@example.com");
+        user.setPassword("x");
+        user.setRole("USER");
+        user.setStatus(1);
+        user = userRepository.save(user);
+        for(int i = 0; i < 120; i++){
+            PostEntity post = new PostEntity();
+            post.setTitle("post " + i);
+            post.setContent("content " + i);
+            post.setType("forum");
+            post.setStatus(1);
+            post.setUser(user);
+            post = postRepository.save(post);
+            postIds.add(post.getId());
+            if(i % 3 == 0){
+                LikeEntity like = new LikeEntity();
+                like.setUser(user);
+                like.setPost(post);
+                likeRepository.save(like);
+            }
+        }
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), 0), null, List.of()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void feedPageIssuesSameStatementCountForAnyPageSize() {
+        long one = statementsForPage(1);
+        long twenty = statementsForPage(20);
+        long hundred = statementsForPage(100);
+
+        assertEquals(2, one);
+        assertEquals(one, twenty);
+        assertEquals(one, hundred);
+    }
+
+    private long statementsForPage(int limit) {
+        postIds.forEach(postFeedCache::evictPost);
+        statistics.clear();
+        PostPageResponse page = postService.getPost(new PostRequest(null, "time", "desc", null, limit),
+                new MockHttpServletRequest());
+        assertEquals(limit, page.getPosts().size());
+        return statistics.getPrepareStatementCount();
+    }
+}
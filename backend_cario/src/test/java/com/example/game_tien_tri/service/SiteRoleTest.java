@@ -0,0 +1,92 @@
+package com.example.game_tien_tri.service;
+
+import com.example.game_tien_tri.entity.PostEntity;
+import com.example.game_tien_tri.entity.UserEntity;
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import com.example.game_tien_tri.repository.PostRepository;
+import com.example.game_tien_tri.repository.UserRepository;
+import com.example.game_tien_tri.utils.SiteRoles;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SiteRoleTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PostRepository postRepository;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void adminCanAssignModeratorWhoCanModerateForumPosts() {
+        UserEntity admin = user(SiteRoles.ADMIN);
+        UserEntity target = user(SiteRoles.USER);
+        PostEntity post = forumPost(admin);
+        authenticate(admin);
+
+        for(String role : new String[]{"admin", "moderator", "OWNER", null}){
+            ResponseStatusException error = assertThrows(ResponseStatusException.class,
+                    () -> userService.updateRole(target.getId(), role, new MockHttpServletRequest()));
+            assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        }
+        userService.updateRole(target.getId(), SiteRoles.MODERATOR, new MockHttpServletRequest());
+        assertEquals(SiteRoles.MODERATOR, userRepository.findById(target.getId()).get().getRole());
+
+        target.setRole(SiteRoles.MODERATOR);
+        authenticate(target);
+        assertEquals(0, postService.updateStatus(post.getId(), 0, new MockHttpServletRequest()).getStatus());
+        assertThrows(ResponseStatusException.class,
+                () -> userService.updateRole(admin.getId(), SiteRoles.USER, new MockHttpServletRequest()));
+    }
+
+    private UserEntity user(String role) {
+        int n = SEQUENCE.incrementAndGet();
+        UserEntity user = new UserEntity();
+        user.setUsername("site-role-" + n);
+        user.setEmail("site-role-" + n + "@example.com");
+        user.setPassword("x");
+        user.setRole(role);
+        user.setStatus(1);
+        return userRepository.save(user);
+    }
+
+    private PostEntity forumPost(UserEntity author) {
+        PostEntity post = new PostEntity();
+        post.setTitle("moderated");
+        post.setContent("content");
+        post.setType("forum");
+        post.setStatus(1);
+        post.setUser(author);
+        return postRepository.save(post);
+    }
+
+    private void authenticate(UserEntity user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(user.getId(), user.getUsername(), user.getRole(), 0), null, List.of()));
+    }
+}
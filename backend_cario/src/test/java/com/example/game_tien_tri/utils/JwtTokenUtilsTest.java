@@ -0,0 +1,58 @@
+package com.example.game_tien_tri.utils;
+
+import com.example.game_tien_tri.model.dto.UserPrincipal;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtTokenUtilsTest {
+    private static final String SECRET = "jVUluL1wrLZtYEz7CBS2USkpy5Vr7X8NOYyQgzoVZp0=";
+    private static final String OTHER_SECRET = "3q2+7wAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA=";
+
+    private JwtTokenUtils jwtTokenUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtils = jwtTokenUtils();
+    }
+
+    @Test
+    void cachedTokenSkipsSignatureVerification() {
+        String cached = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "USER", 0));
+        String fresh = jwtTokenUtils.generateToken(new UserPrincipal(2, "bob", "USER", 0));
+        jwtTokenUtils.verify(cached);
+
+        // A parser with the wrong key rejects every signature it actually checks.
+        ReflectionTestUtils.setField(jwtTokenUtils, "parser",
+                Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(OTHER_SECRET))).build());
+
+        assertEquals("alice", jwtTokenUtils.verify(cached).getSubject());
+        assertThrows(SignatureException.class, () -> jwtTokenUtils.verify(fresh));
+    }
+
+    @Test
+    void tamperedTokenIsNotServedFromCache() {
+        String token = jwtTokenUtils.generateToken(new UserPrincipal(1, "alice", "USER", 0));
+        jwtTokenUtils.verify(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtTokenUtils.verify(tampered));
+    }
+
+    private static JwtTokenUtils jwtTokenUtils() {
+        JwtTokenUtils jwtTokenUtils = new JwtTokenUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtTokenUtils, "expriration", "3600");
+        ReflectionTestUtils.setField(jwtTokenUtils, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtTokenUtils, "verifiedCacheSize", 100L);
+        jwtTokenUtils.init();
+        return jwtTokenUtils;
+    }
+}